@@ -69,6 +69,7 @@ dependencies {
     implementation(libs.netty.codec.haproxy)
     implementation(variantOf(libs.netty.transport.native.epoll) { classifier("linux-x86_64") })
     implementation(variantOf(libs.netty.transport.native.kqueue) { classifier("osx-x86_64") })
+    implementation(variantOf(libs.netty.transport.native.io.uring) { classifier("linux-x86_64") })
     implementation(libs.nimbus.jose.jwt)
 
     compileOnly(libs.lombok)
@@ -28,10 +28,12 @@ import dev.waterdog.waterdogpe.event.defaults.DispatchCommandEvent;
 import dev.waterdog.waterdogpe.event.defaults.NetworkRegisterEvent;
 import dev.waterdog.waterdogpe.event.defaults.ProxyStartEvent;
 import dev.waterdog.waterdogpe.logger.MainLogger;
+import dev.waterdog.waterdogpe.network.DatagramReadStats;
 import dev.waterdog.waterdogpe.network.EventLoops;
 import dev.waterdog.waterdogpe.network.NetworkInterface;
 import dev.waterdog.waterdogpe.network.NetworkMetrics;
 import dev.waterdog.waterdogpe.network.NetworkStartupException;
+import dev.waterdog.waterdogpe.network.protocol.ChunkBlobStore;
 import dev.waterdog.waterdogpe.network.RakNetInterface;
 import dev.waterdog.waterdogpe.network.connection.codec.compression.CompressionType;
 import dev.waterdog.waterdogpe.network.connection.codec.initializer.ProxiedSessionInitializer;
@@ -43,6 +45,7 @@ import dev.waterdog.waterdogpe.network.connection.handler.IReconnectHandler;
 import dev.waterdog.waterdogpe.network.protocol.ProtocolCodecs;
 import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
 import dev.waterdog.waterdogpe.network.protocol.updaters.CodecUpdaterCommands;
+import dev.waterdog.waterdogpe.network.protocol.user.KeyPairPool;
 import dev.waterdog.waterdogpe.network.serverinfo.ServerInfo;
 import dev.waterdog.waterdogpe.network.serverinfo.ServerInfoMap;
 import dev.waterdog.waterdogpe.packs.PackManager;
@@ -72,9 +75,12 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import lombok.Getter;
 import lombok.Setter;
@@ -140,6 +146,31 @@ public class ProxyServer {
     private final EventLoopGroup bossEventLoopGroup;
     @Getter
     private final EventLoopGroup workerEventLoopGroup;
+    @Getter
+    private final DatagramReadStats upstreamDatagramStats = new DatagramReadStats();
+    @Getter
+    private final DatagramReadStats downstreamDatagramStats = new DatagramReadStats();
+    /**
+     * Executor compressing large upstream batches, null if compression offloading is disabled.
+     */
+    @Getter
+    private final ExecutorService compressionExecutor;
+    /**
+     * Executor verifying login chains and client data, bounded so a join storm is rejected early instead of queueing up.
+     */
+    @Getter
+    private final ThreadPoolExecutor loginExecutor;
+    /**
+     * Pool of pre-generated key pairs used for downstream logins, null if disabled.
+     */
+    @Getter
+    private final KeyPairPool keyPairPool;
+    private final ExecutorService keyPairExecutor;
+    /**
+     * Store of client cache blobs sent by downstream servers, null if disabled.
+     */
+    @Getter
+    private final ChunkBlobStore chunkBlobStore;
     private final ScheduledExecutorService tickExecutor;
     private ScheduledFuture<?> tickFuture;
     private volatile boolean shutdown = false;
@@ -193,6 +224,9 @@ public class ProxyServer {
                 .build();
         this.tickExecutor = Executors.newScheduledThreadPool(1, builder);
 
+        if (this.getNetworkSettings().useIoUring() && !EventLoops.enableIoUring()) {
+            this.logger.warning("io_uring is not supported on this system, falling back to " + EventLoops.getChannelType().name());
+        }
         EventLoops.ChannelType channelType = EventLoops.getChannelType();
         this.logger.info("Using " + channelType.name() + " channel implementation as default!");
         for (EventLoops.ChannelType type : EventLoops.ChannelType.values()) {
@@ -209,8 +243,44 @@ public class ProxyServer {
                 .priority(8)
                 .daemon(true)
                 .build();
-        this.workerEventLoopGroup = channelType.newEventLoopGroup(0, workerFactory);
-        this.bossEventLoopGroup = channelType.newEventLoopGroup(0, bossFactory);
+        this.workerEventLoopGroup = channelType.newEventLoopGroup(Math.max(0, this.getNetworkSettings().getWorkerThreads()), workerFactory);
+        this.bossEventLoopGroup = channelType.newEventLoopGroup(Math.max(0, this.getNetworkSettings().getBossThreads()), bossFactory);
+        this.logger.info("Network topology: channel={} boss_threads={} worker_threads={} reuseport_sockets={} cores={}", channelType.name(),
+                EventLoops.getThreadCount(this.bossEventLoopGroup), EventLoops.getThreadCount(this.workerEventLoopGroup),
+                EventLoops.isReusePortSupported() ? this.getNetworkSettings().getReusePortSockets() : 1, Runtime.getRuntime().availableProcessors());
+
+        if (this.getConfiguration().getCompressionOffloadThreshold() > 0) {
+            ThreadFactoryBuilder compressionFactory = ThreadFactoryBuilder.builder()
+                    .format("Compression Executor - #%d")
+                    .daemon(true)
+                    .build();
+            this.compressionExecutor = Executors.newFixedThreadPool(this.getConfiguration().getCompressionOffloadThreads(), compressionFactory);
+        } else {
+            this.compressionExecutor = null;
+        }
+
+        ThreadFactoryBuilder loginFactory = ThreadFactoryBuilder.builder()
+                .format("Login Executor - #%d")
+                .daemon(true)
+                .build();
+        int loginThreads = this.getConfiguration().getLoginVerificationThreads();
+        this.loginExecutor = new ThreadPoolExecutor(loginThreads, loginThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, this.getConfiguration().getLoginVerificationQueue())), loginFactory);
+
+        if (this.getConfiguration().getKeyPairPoolSize() > 0) {
+            ThreadFactoryBuilder keyPairFactory = ThreadFactoryBuilder.builder()
+                    .format("KeyPair Generator - #%d")
+                    .daemon(true)
+                    .build();
+            this.keyPairExecutor = Executors.newSingleThreadExecutor(keyPairFactory);
+            this.keyPairPool = new KeyPairPool(this.getConfiguration().getKeyPairPoolSize(), this.getConfiguration().getKeyPairPoolLowWaterMark(), this.keyPairExecutor);
+        } else {
+            this.keyPairExecutor = null;
+            this.keyPairPool = null;
+        }
+
+        int chunkBlobCacheSize = this.getConfiguration().getChunkBlobCacheSize();
+        this.chunkBlobStore = chunkBlobCacheSize > 0 ? new ChunkBlobStore(chunkBlobCacheSize * 1024L * 1024L) : null;
 
         // Default Handlers
         this.forcedHostHandler = new DefaultForcedHostHandler();
@@ -298,6 +368,11 @@ public class ProxyServer {
 
         this.logger.debug("Upstream <-> Proxy compression level " + this.getConfiguration().getUpstreamCompression());
         this.logger.debug("Downstream <-> Proxy compression level " + this.getConfiguration().getDownstreamCompression());
+        if (this.compressionExecutor != null) {
+            this.logger.debug("Compression offload: threshold=" + this.getConfiguration().getCompressionOffloadThreshold() + " threads=" + this.getConfiguration().getCompressionOffloadThreads());
+        }
+        this.logger.debug("Login verification: threads=" + this.getConfiguration().getLoginVerificationThreads() + " queue=" + this.getConfiguration().getLoginVerificationQueue());
+        this.logger.debug("KeyPair pool: size=" + this.getConfiguration().getKeyPairPoolSize() + " low_water_mark=" + this.getConfiguration().getKeyPairPoolLowWaterMark());
         this.logger.debug("MTU Settings: max_user=" + this.getNetworkSettings().getMaximumMtu() + " max_server=" + this.getNetworkSettings().getMaximumDownstreamMtu());
         this.logger.debug("RakNet Cookies: enabled=" + this.getNetworkSettings().enableCookies());
         this.logger.debug("PROXY protocol: enabled=" + this.getNetworkSettings().enableProxyProtocol());
@@ -398,6 +473,14 @@ public class ProxyServer {
             this.logger.error("Error while shutting down ProxyServer", e);
         }
 
+        if (this.compressionExecutor != null) {
+            this.compressionExecutor.shutdown();
+        }
+        this.loginExecutor.shutdownNow();
+        if (this.keyPairExecutor != null) {
+            this.keyPairExecutor.shutdownNow();
+        }
+
         if (this.tickFuture != null && !this.tickFuture.isCancelled()) {
             this.logger.info("Interrupting scheduler!");
             this.tickFuture.cancel(true);
@@ -4,6 +4,8 @@ import dev.waterdog.waterdogpe.ProxyServer;
 import dev.waterdog.waterdogpe.command.Command;
 import dev.waterdog.waterdogpe.command.CommandSender;
 import dev.waterdog.waterdogpe.command.CommandSettings;
+import dev.waterdog.waterdogpe.network.protocol.ChunkBlobStore;
+import dev.waterdog.waterdogpe.network.protocol.rewrite.types.BlockPaletteRegistry;
 import java.lang.management.ManagementFactory;
 import java.lang.management.OperatingSystemMXBean;
 import java.lang.management.RuntimeMXBean;
@@ -44,6 +46,22 @@ public class StatusCommand extends Command {
 
         sb.append("§3CPU Usage: §b").append(getProcessCpuLoad()).append("\n");
 
+        sb.append("§3Datagrams/Read: §b").append(String.format("%.2f", proxy.getUpstreamDatagramStats().getDatagramsPerRead()))
+                .append(" upstream, ").append(String.format("%.2f", proxy.getDownstreamDatagramStats().getDatagramsPerRead()))
+                .append(" downstream\n");
+
+        sb.append("§3Block Palettes: §b").append(BlockPaletteRegistry.getPaletteCount())
+                .append(" (").append(BlockPaletteRegistry.getPaletteEntries()).append(" entries)\n");
+
+        ChunkBlobStore blobStore = proxy.getChunkBlobStore();
+        if (blobStore != null) {
+            sb.append("§3Chunk Blobs: §b").append(blobStore.getBlobCount())
+                    .append(" (").append(blobStore.getStoredBytes() / 1048576).append(" MB), hit rate ")
+                    .append(String.format("%.1f%%", blobStore.getHitRate() * 100))
+                    .append(", saved ").append(blobStore.getBytesSaved() / 1048576).append(" MB")
+                    .append(", rejected ").append(blobStore.getRejected()).append("\n");
+        }
+
         ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
         sb.append("§3Threads: §b").append(threadMXBean.getThreadCount()).append("\n");
 
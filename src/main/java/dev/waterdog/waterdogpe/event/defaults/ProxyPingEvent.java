@@ -54,6 +54,15 @@ public class ProxyPingEvent extends Event {
     @Setter
     @Getter
     private int maximumPlayerCount;
+    /**
+     * When the ping cache is enabled by the ping_cache_interval network setting, the response to this event
+     * is cached and sent to further pings of any sender until the cache expires.
+     * Listeners customizing the response per sender {@link #getAddress()} should set this to false,
+     * the event is then called for every ping.
+     */
+    @Setter
+    @Getter
+    private boolean cacheable = true;
 
     public ProxyPingEvent(String motd, String subMotd, String gameType, String edition, String version, Collection<ProxiedPlayer> players, int maximumPlayerCount, InetSocketAddress address) {
         this.motd = motd;
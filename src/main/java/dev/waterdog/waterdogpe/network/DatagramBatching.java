@@ -0,0 +1,185 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelException;
+import io.netty.channel.FixedRecvByteBufAllocator;
+import io.netty.channel.MaxMessagesRecvByteBufAllocator;
+import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.util.UncheckedBooleanSupplier;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Configures kernel side datagram batching on the sockets underneath RakNet channels.
+ * On epoll a read buffer sized for multiple datagrams makes netty receive them using a single recvmmsg call,
+ * and UDP GRO lets the kernel coalesce datagrams of the same flow. Flushing multiple datagrams already
+ * goes through sendmmsg. Other transports, and sockets with both disabled, keep the allocator of the channel.
+ */
+@Log4j2
+public class DatagramBatching {
+    /**
+     * Largest datagram the kernel may hand over when GRO is enabled.
+     */
+    private static final int MAX_GRO_SIZE = 65535;
+
+    /**
+     * Applies batching to the datagram socket of the given RakNet channel.
+     *
+     * @param channel    RakNet server or client channel, or the datagram channel itself
+     * @param maxPayload largest datagram expected on the socket, usually the RakNet MTU
+     * @param readBatch  maximum datagrams received by one syscall, values below 2 disable recvmmsg
+     * @param gro        whether UDP GRO should be enabled if the kernel supports it
+     * @param stats      statistics receiving datagrams per read, only recorded while batching is enabled
+     */
+    public static void configure(Channel channel, int maxPayload, int readBatch, boolean gro, DatagramReadStats stats) {
+        Channel datagramChannel = channel instanceof DatagramChannel ? channel : channel.parent();
+        if (!(datagramChannel instanceof DatagramChannel)) {
+            return;
+        }
+
+        ChannelConfig config = datagramChannel.config();
+        int bufferSize = maxPayload;
+        boolean enabled = false;
+        if (readBatch > 1 && config.setOption(EpollChannelOption.MAX_DATAGRAM_PAYLOAD_SIZE, maxPayload)) {
+            bufferSize = maxPayload * readBatch;
+            enabled = true;
+        }
+
+        if (gro && EventLoops.getChannelType() == EventLoops.ChannelType.EPOLL) {
+            try {
+                if (config.setOption(EpollChannelOption.UDP_GRO, true)) {
+                    bufferSize = Math.max(bufferSize, MAX_GRO_SIZE);
+                    enabled = true;
+                }
+            } catch (ChannelException e) {
+                log.debug("UDP GRO is not supported by the kernel", e);
+            }
+        }
+
+        if (!enabled) {
+            return; // the default allocator already fits a single datagram per read
+        }
+
+        // Keep reading as many times per wakeup as the allocator being replaced did
+        RecvByteBufAllocator previous = config.getRecvByteBufAllocator();
+        int maxMessagesPerRead = previous instanceof MaxMessagesRecvByteBufAllocator allocator ?
+                allocator.maxMessagesPerRead() : datagramChannel.metadata().defaultMaxMessagesPerRead();
+        config.setRecvByteBufAllocator(new CountingAllocator(bufferSize, maxMessagesPerRead, stats));
+    }
+
+    static class CountingAllocator implements MaxMessagesRecvByteBufAllocator {
+        private final FixedRecvByteBufAllocator allocator;
+        private final DatagramReadStats stats;
+
+        CountingAllocator(int bufferSize, int maxMessagesPerRead, DatagramReadStats stats) {
+            this.allocator = new FixedRecvByteBufAllocator(bufferSize);
+            this.allocator.maxMessagesPerRead(maxMessagesPerRead);
+            this.stats = stats;
+        }
+
+        @Override
+        public int maxMessagesPerRead() {
+            return this.allocator.maxMessagesPerRead();
+        }
+
+        @Override
+        public MaxMessagesRecvByteBufAllocator maxMessagesPerRead(int maxMessagesPerRead) {
+            this.allocator.maxMessagesPerRead(maxMessagesPerRead);
+            return this;
+        }
+
+        @Override
+        public Handle newHandle() {
+            return new CountingHandle((ExtendedHandle) this.allocator.newHandle(), this.stats);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static class CountingHandle implements RecvByteBufAllocator.ExtendedHandle {
+        private final RecvByteBufAllocator.ExtendedHandle handle;
+        private final DatagramReadStats stats;
+
+        private CountingHandle(RecvByteBufAllocator.ExtendedHandle handle, DatagramReadStats stats) {
+            this.handle = handle;
+            this.stats = stats;
+        }
+
+        @Override
+        public ByteBuf allocate(ByteBufAllocator alloc) {
+            return this.handle.allocate(alloc);
+        }
+
+        @Override
+        public int guess() {
+            return this.handle.guess();
+        }
+
+        @Override
+        public void reset(ChannelConfig config) {
+            this.handle.reset(config);
+        }
+
+        @Override
+        public void incMessagesRead(int numMessages) {
+            this.stats.recordDatagrams(numMessages);
+            this.handle.incMessagesRead(numMessages);
+        }
+
+        @Override
+        public void lastBytesRead(int bytes) {
+            if (bytes > 0) {
+                this.stats.recordRead();
+            }
+            this.handle.lastBytesRead(bytes);
+        }
+
+        @Override
+        public int lastBytesRead() {
+            return this.handle.lastBytesRead();
+        }
+
+        @Override
+        public void attemptedBytesRead(int bytes) {
+            this.handle.attemptedBytesRead(bytes);
+        }
+
+        @Override
+        public int attemptedBytesRead() {
+            return this.handle.attemptedBytesRead();
+        }
+
+        @Override
+        public boolean continueReading() {
+            return this.handle.continueReading();
+        }
+
+        @Override
+        public boolean continueReading(UncheckedBooleanSupplier maybeMoreDataSupplier) {
+            return this.handle.continueReading(maybeMoreDataSupplier);
+        }
+
+        @Override
+        public void readComplete() {
+            this.handle.readComplete();
+        }
+    }
+}
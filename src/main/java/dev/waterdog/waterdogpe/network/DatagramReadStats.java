@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts datagrams received per read syscall on the underlying datagram sockets.
+ * With recvmmsg batching in effect the average grows above one under load.
+ */
+public class DatagramReadStats {
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder datagrams = new LongAdder();
+
+    void recordRead() {
+        this.reads.increment();
+    }
+
+    void recordDatagrams(int count) {
+        this.datagrams.add(count);
+    }
+
+    public long getReads() {
+        return this.reads.sum();
+    }
+
+    public long getDatagrams() {
+        return this.datagrams.sum();
+    }
+
+    public double getDatagramsPerRead() {
+        long reads = this.reads.sum();
+        return reads == 0 ? 0 : (double) this.datagrams.sum() / reads;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.2f datagrams/read (%d datagrams, %d reads)", this.getDatagramsPerRead(), this.getDatagrams(), this.getReads());
+    }
+}
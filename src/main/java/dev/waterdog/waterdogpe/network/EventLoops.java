@@ -16,6 +16,7 @@
 package dev.waterdog.waterdogpe.network;
 
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MultithreadEventLoopGroup;
 import io.netty.channel.epoll.*;
 import io.netty.channel.kqueue.*;
 import io.netty.channel.nio.NioEventLoopGroup;
@@ -25,6 +26,7 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioDatagramChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.incubator.channel.uring.*;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
@@ -32,22 +34,55 @@ import java.util.concurrent.ThreadFactory;
 import java.util.function.BiFunction;
 
 public class EventLoops {
-    private static final ChannelType CHANNEL_TYPE;
+    private static volatile ChannelType channelType;
 
     static {
         boolean disableNative = System.getProperties().contains("disableNativeEventLoop");
 
-        if (!disableNative && Epoll.isAvailable()) {
-            CHANNEL_TYPE = ChannelType.EPOLL;
+        if (!disableNative && Boolean.getBoolean("waterdog.ioUring") && ChannelType.IO_URING.isAvailable()) {
+            channelType = ChannelType.IO_URING;
+        } else if (!disableNative && Epoll.isAvailable()) {
+            channelType = ChannelType.EPOLL;
         } else if (!disableNative && KQueue.isAvailable()) {
-            CHANNEL_TYPE = ChannelType.KQUEUE;
+            channelType = ChannelType.KQUEUE;
         } else {
-            CHANNEL_TYPE = ChannelType.NIO;
+            channelType = ChannelType.NIO;
         }
     }
 
     public static ChannelType getChannelType() {
-        return CHANNEL_TYPE;
+        return channelType;
+    }
+
+    /**
+     * Switches to the io_uring transport if it is supported by the running kernel.
+     * Has to be called before any event loop group or channel is created.
+     *
+     * @return true if io_uring is used, false if the current channel type is kept
+     */
+    public static boolean enableIoUring() {
+        if (channelType == ChannelType.IO_URING) {
+            return true;
+        }
+        if (channelType == ChannelType.NIO || !ChannelType.IO_URING.isAvailable()) {
+            return false;
+        }
+        channelType = ChannelType.IO_URING;
+        return true;
+    }
+
+    /**
+     * @return true if multiple datagram sockets can be bound to the same port using SO_REUSEPORT
+     */
+    public static boolean isReusePortSupported() {
+        return channelType == ChannelType.EPOLL || channelType == ChannelType.IO_URING;
+    }
+
+    public static int getThreadCount(EventLoopGroup group) {
+        if (group instanceof MultithreadEventLoopGroup multithreadGroup) {
+            return multithreadGroup.executorCount();
+        }
+        return 1;
     }
 
     @Getter
@@ -57,6 +92,8 @@ public class EventLoops {
                 EpollEventLoopGroup::new, Epoll.isAvailable()),
         KQUEUE(KQueueDatagramChannel.class, KQueueSocketChannel.class, KQueueServerSocketChannel.class,
                 KQueueEventLoopGroup::new, KQueue.isAvailable()),
+        IO_URING(IOUringDatagramChannel.class, IOUringSocketChannel.class, IOUringServerSocketChannel.class,
+                IOUringEventLoopGroup::new, IOUring.isAvailable()),
         NIO(NioDatagramChannel.class, NioSocketChannel.class, NioServerSocketChannel.class,
                 NioEventLoopGroup::new, true);
 
@@ -15,6 +15,7 @@
 
 package dev.waterdog.waterdogpe.network;
 
+import dev.waterdog.waterdogpe.network.connection.codec.compression.AdaptiveCompressionStrategy;
 import io.netty.util.AttributeKey;
 import org.cloudburstmc.protocol.bedrock.PacketDirection;
 
@@ -30,6 +31,19 @@ public interface NetworkMetrics {
     default void packetQueueTooLarge() {
     }
 
+    /**
+     * Called when a login is queued for verification on the login executor.
+     * @param queueDepth the amount of logins waiting for verification, including this one
+     */
+    default void loginVerificationQueued(int queueDepth) {
+    }
+
+    /**
+     * Called when a login is rejected because the login verification queue is full.
+     */
+    default void loginVerificationRejected() {
+    }
+
     /**
      * Called once a BedrockBatchWrapper is compressed.
      * @param count the amount of bytes being compressed
@@ -38,6 +52,38 @@ public interface NetworkMetrics {
     default void compressedBytes(int count, PacketDirection direction) {
     }
 
+    /**
+     * Called once a BedrockBatchWrapper is compressed, with the time the compression took.
+     * Batches compressed on the network thread delay every other connection handled by the same thread,
+     * so percentiles of non-offloaded compression times are a good indicator of event loop stalls.
+     * @param nanos the time spent compressing in nanoseconds
+     * @param offloaded whether the batch was compressed on the compression executor instead of the network thread
+     * @param direction the packet direction
+     */
+    default void compressionTime(long nanos, boolean offloaded, PacketDirection direction) {
+    }
+
+    /**
+     * Called once a BedrockBatchWrapper is compressed by the {@link AdaptiveCompressionStrategy}.
+     * @param decision the compression chosen for the batch
+     * @param uncompressedBytes the size of the batch before compression
+     * @param compressedBytes the size of the batch after compression
+     * @param nanos the time spent compressing in nanoseconds
+     * @param direction the packet direction
+     */
+    default void adaptiveCompression(AdaptiveCompressionStrategy.Decision decision, int uncompressedBytes, int compressedBytes, long nanos, PacketDirection direction) {
+    }
+
+    /**
+     * Called once packets queued for a connection are coalesced into a batch and written.
+     * @param packets the amount of packets in the batch
+     * @param bytes the uncompressed size of the batch, or -1 if unknown
+     * @param queueDelayNanos the time the oldest packet of the batch spent in the queue
+     * @param direction the packet direction
+     */
+    default void outboundBatch(int packets, int bytes, long queueDelayNanos, PacketDirection direction) {
+    }
+
     /**
      * Called once a BedrockBatchWrapper is decompressed.
      * @param count the amount of bytes being decompressed
@@ -55,6 +101,21 @@ public interface NetworkMetrics {
     default void passedThroughBytes(int count, PacketDirection direction) {
     }
 
+    /**
+     * Called once a BedrockBatchWrapper is forwarded using the compressed frame it was received with.
+     * @param direction the packet direction
+     */
+    default void passedThroughBatch(PacketDirection direction) {
+    }
+
+    /**
+     * Called when a BedrockBatchWrapper has to be compressed again, because the receiving side
+     * does not support the compression algorithm the batch was received with.
+     * @param direction the packet direction
+     */
+    default void compressionMismatch(PacketDirection direction) {
+    }
+
     /**
      * Called when a packet modified and is encoded.
      * @param count the amount of encoded packets
@@ -71,6 +132,14 @@ public interface NetworkMetrics {
     default void passedThroughPackets(int count, PacketDirection direction) {
     }
 
+    /**
+     * Called when a batch is sent to a connection from a thread other than the connection's event loop,
+     * which requires the write to be submitted as a task to that event loop.
+     * @param direction the packet direction
+     */
+    default void crossThreadWrite(PacketDirection direction) {
+    }
+
     /**
      * Called when a datagram packet is dropped because it was blocked
      * @param count the amount of bytes within dropped datagram packet
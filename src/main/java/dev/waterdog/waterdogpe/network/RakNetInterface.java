@@ -19,11 +19,11 @@ import dev.waterdog.waterdogpe.ProxyServer;
 import dev.waterdog.waterdogpe.network.connection.codec.initializer.OfflineServerChannelInitializer;
 import dev.waterdog.waterdogpe.network.connection.codec.initializer.ProxiedServerSessionInitializer;
 import dev.waterdog.waterdogpe.network.serverinfo.BedrockServerInfo;
+import dev.waterdog.waterdogpe.utils.config.proxy.NetworkSettings;
 import dev.waterdog.waterdogpe.utils.types.TranslationContainer;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
-import io.netty.channel.epoll.Epoll;
 import io.netty.channel.unix.UnixChannelOption;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import java.net.InetSocketAddress;
@@ -52,9 +52,9 @@ public class RakNetInterface implements NetworkInterface {
     public void start(InetSocketAddress address) throws NetworkStartupException {
         List<Channel> bound = new ObjectArrayList<>();
         try {
-            boolean allowEpoll = Epoll.isAvailable();
-            int bindCount = allowEpoll && EventLoops.getChannelType() != EventLoops.ChannelType.NIO
-                    ? Runtime.getRuntime().availableProcessors() : 1;
+            NetworkSettings settings = this.server.getNetworkSettings();
+            boolean reusePort = EventLoops.isReusePortSupported();
+            int bindCount = reusePort ? settings.getReusePortSockets() : 1;
 
             for (int i = 0; i < bindCount; i++) {
                 ServerBootstrap bootstrap = new ServerBootstrap()
@@ -71,13 +71,15 @@ public class RakNetInterface implements NetworkInterface {
                         .childOption(RakChannelOption.RAK_ORDERING_CHANNELS, 1)
                         .handler(new OfflineServerChannelInitializer(this.server))
                         .childHandler(new ProxiedServerSessionInitializer(this.server));
-                if (allowEpoll) {
+                if (reusePort) {
                     bootstrap.option(UnixChannelOption.SO_REUSEPORT, true);
                 }
                 ChannelFuture future = bootstrap
                         .bind(address)
                         .syncUninterruptibly();
                 if (future.isSuccess()) {
+                    DatagramBatching.configure(future.channel(), settings.getMaximumMtu(), settings.getDatagramReadBatch(),
+                            settings.udpGro(), this.server.getUpstreamDatagramStats());
                     bound.add(future.channel());
                 } else {
                     throw new IllegalStateException("Can not start server on " + address, future.cause());
@@ -86,6 +88,13 @@ public class RakNetInterface implements NetworkInterface {
             this.serverChannels.addAll(bound);
             this.running = true;
             this.server.getLogger().info(new TranslationContainer("waterdog.query.start", address.toString()).getTranslated());
+
+            long bossThreads = bound.stream().map(Channel::eventLoop).distinct().count();
+            this.server.getLogger().info("Listening on {} with {} socket(s) served by {} boss thread(s)", address, bound.size(), bossThreads);
+            if (bossThreads < bound.size()) {
+                this.server.getLogger().warning("{} sockets on {} share {} boss threads, increase boss_threads or lower reuseport_sockets",
+                        bound.size(), address, bossThreads);
+            }
         } catch (Exception e) {
             for (Channel channel : bound) {
                 if (channel.isOpen()) {
@@ -15,6 +15,7 @@
 
 package dev.waterdog.waterdogpe.network.connection;
 
+import dev.waterdog.waterdogpe.network.connection.codec.batch.OutboundBatchStats;
 import org.cloudburstmc.protocol.bedrock.PacketDirection;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
@@ -46,5 +47,12 @@ public interface ProxiedConnection {
 
     long getPing();
 
+    /**
+     * @return statistics of batches coalesced from packets sent over this connection, or null if not tracked
+     */
+    default OutboundBatchStats getOutboundBatchStats() {
+        return null;
+    }
+
     PacketDirection getPacketDirection();
 }
@@ -16,13 +16,18 @@
 package dev.waterdog.waterdogpe.network.connection.client;
 
 import dev.waterdog.waterdogpe.network.connection.codec.batch.FrameIdCodec;
+import dev.waterdog.waterdogpe.network.connection.codec.batch.OutboundBatchStats;
+import dev.waterdog.waterdogpe.network.connection.codec.client.ClientPacketQueue;
 import dev.waterdog.waterdogpe.network.connection.codec.compression.CompressionType;
+import dev.waterdog.waterdogpe.network.connection.codec.encryption.ProxiedEncryptionDecoder;
+import dev.waterdog.waterdogpe.network.connection.codec.encryption.ProxiedEncryptionEncoder;
 import dev.waterdog.waterdogpe.network.connection.codec.compression.ProxiedCompressionCodec;
 import dev.waterdog.waterdogpe.network.connection.codec.initializer.ProxiedSessionInitializer;
 import dev.waterdog.waterdogpe.network.connection.codec.packet.BedrockPacketCodec;
 import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
 import dev.waterdog.waterdogpe.network.protocol.handler.ProxyBatchBridge;
 import dev.waterdog.waterdogpe.network.protocol.handler.ProxyPacketHandler;
+import dev.waterdog.waterdogpe.network.protocol.user.LoginData;
 import dev.waterdog.waterdogpe.network.serverinfo.ServerInfo;
 import dev.waterdog.waterdogpe.player.ProxiedPlayer;
 import io.netty.channel.Channel;
@@ -98,7 +103,7 @@ public class BedrockClientConnection extends SimpleChannelInboundHandler<Bedrock
     public void sendPacket(BedrockBatchWrapper wrapper) {
         if (this.player.getProtocol().isBefore(ProtocolVersion.MINECRAFT_PE_1_20_60) &&
                 !Objects.equals(wrapper.getAlgorithm(), this.compressionStrategy.getDefaultCompression().getAlgorithm())) {
-            wrapper.setCompressed(null); // Before 1.20.60 dynamic compression is not supported
+            ProxiedCompressionCodec.discardCompressed(this.channel, wrapper); // Before 1.20.60 dynamic compression is not supported
         }
         // Starting with 1.20.60 support all compression algorithms on server side.
         this.channel.writeAndFlush(wrapper);
@@ -109,11 +114,24 @@ public class BedrockClientConnection extends SimpleChannelInboundHandler<Bedrock
         this.channel.writeAndFlush(packet);
     }
 
+    @Override
+    public void sendLoginPacket(LoginData loginData) {
+        BedrockBatchWrapper batch = BedrockBatchWrapper.newInstance();
+        batch.getPackets().add(loginData.createEncodedLoginPacket(this.channel.pipeline().get(BedrockPacketCodec.class)));
+        this.channel.writeAndFlush(batch);
+    }
+
     @Override
     public void sendPacketImmediately(BedrockPacket packet) {
         this.channel.writeAndFlush(BedrockBatchWrapper.create(this.getSubClientId(), packet));
     }
 
+    @Override
+    public OutboundBatchStats getOutboundBatchStats() {
+        ClientPacketQueue queue = this.channel.pipeline().get(ClientPacketQueue.class);
+        return queue == null ? null : queue.getStats();
+    }
+
     @Override
     public void setCompression(CompressionAlgorithm algorithm) {
         CompressionStrategy strategy;
@@ -153,9 +171,9 @@ public class BedrockClientConnection extends SimpleChannelInboundHandler<Bedrock
         boolean useCtr = protocolVersion >= Bedrock_v428.CODEC.getProtocolVersion();
 
         this.channel.pipeline().addAfter(FrameIdCodec.NAME, BedrockEncryptionEncoder.NAME,
-                new BedrockEncryptionEncoder(secretKey, EncryptionUtils.createCipher(useCtr, true, secretKey)));
+                new ProxiedEncryptionEncoder(secretKey, EncryptionUtils.createCipher(useCtr, true, secretKey)));
         this.channel.pipeline().addAfter(FrameIdCodec.NAME, BedrockEncryptionDecoder.NAME,
-                new BedrockEncryptionDecoder(secretKey, EncryptionUtils.createCipher(useCtr, false, secretKey)));
+                new ProxiedEncryptionDecoder(secretKey, EncryptionUtils.createCipher(useCtr, false, secretKey)));
 
         log.info("Encryption enabled for {}", this.getSocketAddress());
     }
@@ -16,6 +16,7 @@
 package dev.waterdog.waterdogpe.network.connection.client;
 
 import dev.waterdog.waterdogpe.network.connection.ProxiedConnection;
+import dev.waterdog.waterdogpe.network.protocol.user.LoginData;
 import dev.waterdog.waterdogpe.network.serverinfo.ServerInfo;
 import dev.waterdog.waterdogpe.player.ProxiedPlayer;
 import org.cloudburstmc.protocol.bedrock.PacketDirection;
@@ -39,6 +40,13 @@ public interface ClientConnection extends ProxiedConnection {
         // No encryption by default
     }
 
+    /**
+     * Sends the login packet of the player to the downstream server.
+     */
+    default void sendLoginPacket(LoginData loginData) {
+        this.sendPacket(loginData.getLoginPacket());
+    }
+
     void setCompression(CompressionAlgorithm compression);
 
     void setCompressionStrategy(CompressionStrategy strategy);
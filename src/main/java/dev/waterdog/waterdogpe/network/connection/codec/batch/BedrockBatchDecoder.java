@@ -35,13 +35,19 @@ public class BedrockBatchDecoder extends MessageToMessageDecoder<BedrockBatchWra
             throw new IllegalStateException("Batch packet was not decompressed");
         }
 
-        ByteBuf buffer = msg.getUncompressed().slice();
-        while (buffer.isReadable()) {
-            int packetLength = VarInts.readUnsignedInt(buffer);
+        // Read straight from the batch buffer instead of allocating a slice, reader index is restored afterwards
+        ByteBuf buffer = msg.getUncompressed();
+        int readerIndex = buffer.readerIndex();
+        try {
+            while (buffer.isReadable()) {
+                int packetLength = VarInts.readUnsignedInt(buffer);
 
-            BedrockPacketWrapper wrapper = BedrockPacketWrapper.create();
-            wrapper.setPacketBuffer(buffer.readRetainedSlice(packetLength));
-            msg.getPackets().add(wrapper);
+                BedrockPacketWrapper wrapper = BedrockPacketWrapper.create();
+                wrapper.setPacketBuffer(buffer.readRetainedSlice(packetLength));
+                msg.getPackets().add(wrapper);
+            }
+        } finally {
+            buffer.readerIndex(readerIndex);
         }
         out.add(msg.retain());
     }
@@ -27,6 +27,29 @@ import java.util.List;
 
 public class BedrockBatchEncoder extends MessageToMessageEncoder<BedrockBatchWrapper> {
     public static final String NAME = "bedrock-batch-encoder";
+    /**
+     * Maximum size of a VarInt packet length prefix.
+     */
+    private static final int MAX_HEADER_SIZE = 5;
+    /**
+     * Batches containing a packet larger than this are not copied into a single buffer, even in contiguous mode.
+     */
+    private static final int LARGE_PACKET_BYTES = 16 * 1024;
+
+    private final boolean contiguous;
+
+    public BedrockBatchEncoder() {
+        this(false);
+    }
+
+    /**
+     * @param contiguous whether to copy the packets of a batch into a single buffer, instead of building
+     *                   a composite buffer with two components per packet. Batches with large packets,
+     *                   such as chunk data, are always built as composite buffers.
+     */
+    public BedrockBatchEncoder(boolean contiguous) {
+        this.contiguous = contiguous;
+    }
 
     @Override
     protected void encode(ChannelHandlerContext ctx, BedrockBatchWrapper msg, List<Object> out) {
@@ -35,6 +58,32 @@ public class BedrockBatchEncoder extends MessageToMessageEncoder<BedrockBatchWra
             return;
         }
 
+        int size = this.contiguous ? getContiguousSize(msg) : -1;
+        if (size >= 0) {
+            encodeContiguous(ctx, msg, size);
+        } else {
+            encodeComposite(ctx, msg);
+        }
+        out.add(msg.retain());
+    }
+
+    private static void encodeContiguous(ChannelHandlerContext ctx, BedrockBatchWrapper msg, int size) {
+        ByteBuf buf = ctx.alloc().ioBuffer(size);
+        try {
+            for (BedrockPacketWrapper packet : msg.getPackets()) {
+                ByteBuf message = packet.getPacketBuffer();
+                VarInts.writeUnsignedInt(buf, message.readableBytes());
+                buf.writeBytes(message, message.readerIndex(), message.readableBytes());
+            }
+            msg.setUncompressed(buf.retain());
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static void encodeComposite(ChannelHandlerContext ctx, BedrockBatchWrapper msg) {
+        // Length prefixes of all packets share one pooled buffer, every component is a slice of it
+        ByteBuf headers = ctx.alloc().ioBuffer(msg.getPackets().size() * MAX_HEADER_SIZE);
         CompositeByteBuf buf = ctx.alloc().compositeDirectBuffer(msg.getPackets().size() * 2);
         try {
             for (BedrockPacketWrapper packet : msg.getPackets()) {
@@ -43,15 +92,39 @@ public class BedrockBatchEncoder extends MessageToMessageEncoder<BedrockBatchWra
                     throw new IllegalArgumentException("BedrockPacket is not encoded");
                 }
 
-                ByteBuf header = ctx.alloc().ioBuffer(5);
-                VarInts.writeUnsignedInt(header, message.readableBytes());
-                buf.addComponent(true, header);
+                int headerIndex = headers.writerIndex();
+                VarInts.writeUnsignedInt(headers, message.readableBytes());
+                buf.addComponent(true, headers.retainedSlice(headerIndex, headers.writerIndex() - headerIndex));
                 buf.addComponent(true, message.retainedSlice());
             }
             msg.setUncompressed(buf.retain());
         } finally {
             buf.release();
+            headers.release();
         }
-        out.add(msg.retain());
+    }
+
+    /**
+     * Returns the exact size of the encoded batch, or -1 if the batch contains a large packet.
+     */
+    private static int getContiguousSize(BedrockBatchWrapper msg) {
+        int size = 0;
+        for (BedrockPacketWrapper packet : msg.getPackets()) {
+            ByteBuf message = packet.getPacketBuffer();
+            if (message == null) {
+                throw new IllegalArgumentException("BedrockPacket is not encoded");
+            }
+
+            int length = message.readableBytes();
+            if (length > LARGE_PACKET_BYTES) {
+                return -1;
+            }
+            size += getVarIntSize(length) + length;
+        }
+        return size;
+    }
+
+    private static int getVarIntSize(int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
     }
 }
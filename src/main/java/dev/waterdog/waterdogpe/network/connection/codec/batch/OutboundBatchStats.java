@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.batch;
+
+import dev.waterdog.waterdogpe.network.NetworkMetrics;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundInvoker;
+import org.cloudburstmc.protocol.bedrock.PacketDirection;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-connection statistics of batches built from individually queued packets.
+ * Batches which are forwarded as a whole are not coalesced and therefore not recorded here.
+ */
+public class OutboundBatchStats {
+    /**
+     * Upper bounds of the queue delay histogram buckets in microseconds.
+     * Delays above the last bound are counted in an additional overflow bucket.
+     */
+    private static final long[] DELAY_BUCKETS_MICROS = {250, 500, 1000, 2000, 5000, 10000, 20000, 50000};
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder packets = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder queueDelayNanos = new LongAdder();
+    private final AtomicLongArray delayHistogram = new AtomicLongArray(DELAY_BUCKETS_MICROS.length + 1);
+
+    /**
+     * @param packets number of packets in the batch
+     * @param bytes uncompressed size of the batch, or -1 if unknown
+     * @param queueDelayNanos time the oldest packet of the batch spent in the queue
+     */
+    public void record(int packets, int bytes, long queueDelayNanos) {
+        this.batches.increment();
+        this.packets.add(packets);
+        if (bytes > 0) {
+            this.bytes.add(bytes);
+        }
+        this.queueDelayNanos.add(queueDelayNanos);
+        this.delayHistogram.incrementAndGet(getDelayBucket(queueDelayNanos));
+    }
+
+    /**
+     * Writes and flushes a batch built from queued packets, then records it here and in the metrics of the channel.
+     *
+     * @param output the channel or handler context to write the batch with
+     * @param queueDelayNanos time the oldest packet of the batch spent in the queue
+     */
+    public void writeBatch(ChannelOutboundInvoker output, Channel channel, BedrockBatchWrapper batch, long queueDelayNanos, PacketDirection direction) {
+        int packets = batch.getPackets().size();
+
+        // Hold the batch until the encoders have run, so its encoded size can be recorded
+        batch.retain();
+        try {
+            output.writeAndFlush(batch);
+            ByteBuf uncompressed = batch.getUncompressed();
+            int bytes = uncompressed == null ? -1 : uncompressed.readableBytes();
+            this.record(packets, bytes, queueDelayNanos);
+
+            NetworkMetrics metrics = channel.attr(NetworkMetrics.ATTRIBUTE).get();
+            if (metrics != null) {
+                metrics.outboundBatch(packets, bytes, queueDelayNanos, direction);
+            }
+        } finally {
+            batch.release();
+        }
+    }
+
+    private static int getDelayBucket(long queueDelayNanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(queueDelayNanos);
+        int bucket = Arrays.binarySearch(DELAY_BUCKETS_MICROS, micros);
+        return bucket >= 0 ? bucket : -bucket - 1;
+    }
+
+    public long getBatches() {
+        return this.batches.sum();
+    }
+
+    public long getPackets() {
+        return this.packets.sum();
+    }
+
+    public long getBytes() {
+        return this.bytes.sum();
+    }
+
+    public double getPacketsPerBatch() {
+        long batches = this.getBatches();
+        return batches == 0 ? 0 : (double) this.getPackets() / batches;
+    }
+
+    public double getBytesPerBatch() {
+        long batches = this.getBatches();
+        return batches == 0 ? 0 : (double) this.getBytes() / batches;
+    }
+
+    public long getAverageQueueDelayNanos() {
+        long batches = this.getBatches();
+        return batches == 0 ? 0 : this.queueDelayNanos.sum() / batches;
+    }
+
+    /**
+     * @return upper bounds of the histogram buckets in microseconds, the last bucket has no upper bound
+     */
+    public static long[] getDelayBucketBounds() {
+        return DELAY_BUCKETS_MICROS.clone();
+    }
+
+    /**
+     * @return number of batches per queue delay bucket, see {@link #getDelayBucketBounds()}
+     */
+    public long[] getDelayHistogram() {
+        long[] histogram = new long[this.delayHistogram.length()];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = this.delayHistogram.get(i);
+        }
+        return histogram;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboundBatchStats(batches=" + this.getBatches() +
+                ", packetsPerBatch=" + String.format("%.2f", this.getPacketsPerBatch()) +
+                ", bytesPerBatch=" + String.format("%.1f", this.getBytesPerBatch()) +
+                ", averageQueueDelayMicros=" + TimeUnit.NANOSECONDS.toMicros(this.getAverageQueueDelayNanos()) +
+                ", delayHistogram=" + Arrays.toString(this.getDelayHistogram()) + ")";
+    }
+}
@@ -15,56 +15,128 @@
 
 package dev.waterdog.waterdogpe.network.connection.codec.client;
 
+import dev.waterdog.waterdogpe.network.connection.codec.batch.OutboundBatchStats;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.ScheduledFuture;
-import io.netty.util.internal.PlatformDependent;
+import lombok.Getter;
+import org.cloudburstmc.protocol.bedrock.PacketDirection;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
 
+import java.util.ArrayDeque;
 import java.util.Queue;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Coalesces packets sent to the downstream server into batches.
+ * A batch is flushed once the queue reaches the packet or byte threshold, or once the oldest queued
+ * packet has waited for the latency budget, whichever comes first. Batches written by the proxy
+ * flush the queue before them, so the order of packets is preserved.
+ */
 public class ClientPacketQueue extends ChannelDuplexHandler {
     public static final String NAME = "client-packet-queue";
 
-    private final Queue<BedrockPacketWrapper> packetQueue = PlatformDependent.newMpscQueue();
-    private ScheduledFuture<?> tickFuture;
+    // Only accessed from the event loop of the channel
+    private final Queue<BedrockPacketWrapper> packetQueue = new ArrayDeque<>();
+    private final long latencyBudgetNanos;
+    private final int maxPackets;
+    private final int maxBytes;
+    @Getter
+    private final OutboundBatchStats stats = new OutboundBatchStats();
+
+    private ScheduledFuture<?> flushFuture;
+    private long firstQueuedTime;
+    private int queuedPackets;
+    private int queuedBytes;
     private boolean closed;
 
+    /**
+     * @param latencyBudget maximum time a packet is held back before it is flushed, 0 flushes every packet immediately
+     * @param unit the unit of the latency budget
+     * @param maxPackets number of queued packets which triggers a flush
+     * @param maxBytes number of queued bytes which triggers a flush, only packets which are already encoded are counted
+     */
+    public ClientPacketQueue(long latencyBudget, TimeUnit unit, int maxPackets, int maxBytes) {
+        this.latencyBudgetNanos = unit.toNanos(latencyBudget);
+        this.maxPackets = maxPackets;
+        this.maxBytes = maxBytes;
+    }
+
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
-        this.tickFuture = ctx.channel().eventLoop().scheduleAtFixedRate(() -> this.onTick(ctx), 50, 50, TimeUnit.MILLISECONDS);
+        if (this.queuedPackets > 0) {
+            this.scheduleFlush(ctx);
+        }
         super.channelActive(ctx);
     }
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
         this.closed = true;
-        if (this.tickFuture != null) { // null if the channel closed before ever going active
-            this.tickFuture.cancel(false);
-            this.tickFuture = null;
-        }
+        this.cancelFlush();
         // Release queued wrappers (retained in write) so they don't leak on close.
         BedrockPacketWrapper packet;
         while ((packet = this.packetQueue.poll()) != null) {
             ReferenceCountUtil.safeRelease(packet);
         }
+        this.queuedPackets = 0;
+        this.queuedBytes = 0;
         super.channelInactive(ctx);
     }
 
-    private void onTick(ChannelHandlerContext ctx) {
-        if (!this.packetQueue.isEmpty()) {
-            BedrockBatchWrapper batch = BedrockBatchWrapper.newInstance();
+    private void scheduleFlush(ChannelHandlerContext ctx) {
+        if (this.flushFuture == null) {
+            this.flushFuture = ctx.executor().schedule(() -> this.flushQueue(ctx), this.latencyBudgetNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void cancelFlush() {
+        if (this.flushFuture != null) {
+            this.flushFuture.cancel(false);
+            this.flushFuture = null;
+        }
+    }
+
+    private void flushQueue(ChannelHandlerContext ctx) {
+        this.cancelFlush();
+        if (this.packetQueue.isEmpty()) {
+            return;
+        }
+
+        BedrockBatchWrapper batch = BedrockBatchWrapper.newInstance();
+        BedrockPacketWrapper packet;
+        while ((packet = this.packetQueue.poll()) != null) {
+            batch.getPackets().add(packet);
+        }
+
+        long queueDelay = System.nanoTime() - this.firstQueuedTime;
+        this.queuedPackets = 0;
+        this.queuedBytes = 0;
+        this.stats.writeBatch(ctx, ctx.channel(), batch, queueDelay, PacketDirection.SERVER_BOUND);
+    }
+
+    private void enqueue(ChannelHandlerContext ctx, BedrockPacketWrapper packet) {
+        if (this.queuedPackets++ == 0) {
+            this.firstQueuedTime = System.nanoTime();
+        }
+        if (packet.getPacketBuffer() != null) {
+            this.queuedBytes += packet.getPacketBuffer().readableBytes();
+        }
+        this.packetQueue.add(packet);
+
+        if (!ctx.channel().isActive()) {
+            return; // flushed once the channel becomes active
+        }
 
-            BedrockPacketWrapper packet;
-            while ((packet = this.packetQueue.poll()) != null) {
-                batch.getPackets().add(packet);
-            }
-            ctx.writeAndFlush(batch);
+        if (this.latencyBudgetNanos <= 0 || this.queuedPackets >= this.maxPackets ||
+                (this.maxBytes > 0 && this.queuedBytes >= this.maxBytes)) {
+            this.flushQueue(ctx);
+        } else {
+            this.scheduleFlush(ctx);
         }
     }
 
@@ -76,11 +148,11 @@ public class ClientPacketQueue extends ChannelDuplexHandler {
             return;
         }
         if (msg instanceof BedrockPacket packet) {
-            this.packetQueue.add(BedrockPacketWrapper.create(0, 0, 0, ReferenceCountUtil.retain(packet), null));
+            this.enqueue(ctx, BedrockPacketWrapper.create(0, 0, 0, ReferenceCountUtil.retain(packet), null));
         } else if (msg instanceof BedrockPacketWrapper packet) {
-            this.packetQueue.add(ReferenceCountUtil.retain(packet));
+            this.enqueue(ctx, ReferenceCountUtil.retain(packet));
         } else if (msg instanceof BedrockBatchWrapper) {
-            this.onTick(ctx);
+            this.flushQueue(ctx);
             ctx.write(msg, promise);
         } else {
             ctx.write(msg, promise);
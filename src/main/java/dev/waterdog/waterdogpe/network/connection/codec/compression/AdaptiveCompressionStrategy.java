@@ -0,0 +1,198 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.compression;
+
+import dev.waterdog.waterdogpe.network.NetworkMetrics;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.concurrent.FastThreadLocal;
+import org.cloudburstmc.protocol.bedrock.PacketDirection;
+import org.cloudburstmc.protocol.bedrock.data.CompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.BatchCompression;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionStrategy;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.NoopCompression;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compression strategy which picks the compression of every batch by its uncompressed size only, the packets
+ * inside a batch are not inspected: tiny batches are sent uncompressed, small batches use a fast level
+ * and large batches a strong one. Once the current thread spent more than
+ * {@link #CPU_BUDGET_NANOS} compressing within the last {@link #CPU_WINDOW_NANOS}, only the fast level is used.
+ * Picking the compression per batch is possible only if the connection prefixes batches with the compression header,
+ * which is supported since 1.20.60. Without the header the codec only accepts the default compression instance,
+ * so other connections always use it.
+ */
+public class AdaptiveCompressionStrategy implements CompressionStrategy {
+    public static final int TINY_BATCH_BYTES = 128;
+    public static final int SMALL_BATCH_BYTES = 2048;
+    public static final int LARGE_BATCH_BYTES = 64 * 1024;
+
+    public static final int FAST_LEVEL = 1;
+    public static final int STRONG_LEVEL = 9;
+
+    private static final long CPU_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long CPU_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final FastThreadLocal<CpuBudget> CPU_BUDGET = new FastThreadLocal<>() {
+        @Override
+        protected CpuBudget initialValue() {
+            return new CpuBudget();
+        }
+    };
+
+    public enum Decision {
+        UNCOMPRESSED,
+        FAST,
+        DEFAULT,
+        STRONG
+    }
+
+    private final BatchCompression defaultCompression;
+    private final BatchCompression uncompressed;
+    private final boolean prefixed;
+    private final BatchCompression[] compressions = new BatchCompression[Decision.values().length];
+
+    /**
+     * @param strategy strategy to take the default compression from
+     * @param prefixed whether batches are prefixed with the compression header, which allows to change algorithm per batch
+     */
+    public AdaptiveCompressionStrategy(CompressionStrategy strategy, boolean prefixed) {
+        this.defaultCompression = strategy.getDefaultCompression();
+        this.uncompressed = new NoopCompression();
+        this.prefixed = prefixed;
+
+        BatchCompression fast = this.defaultCompression;
+        BatchCompression strong = this.defaultCompression;
+        if (this.defaultCompression instanceof DeflateCompression deflate) {
+            fast = new DeflateCompression(deflate.isRaw());
+            fast.setLevel(Math.min(FAST_LEVEL, deflate.getLevel()));
+            strong = new DeflateCompression(deflate.isRaw());
+            strong.setLevel(Math.max(STRONG_LEVEL, deflate.getLevel()));
+        }
+
+        this.compressions[Decision.UNCOMPRESSED.ordinal()] = new MeasuredCompression(this.uncompressed, Decision.UNCOMPRESSED);
+        this.compressions[Decision.FAST.ordinal()] = new MeasuredCompression(fast, Decision.FAST);
+        this.compressions[Decision.DEFAULT.ordinal()] = new MeasuredCompression(this.defaultCompression, Decision.DEFAULT);
+        this.compressions[Decision.STRONG.ordinal()] = new MeasuredCompression(strong, Decision.STRONG);
+    }
+
+    public Decision decide(BedrockBatchWrapper batch) {
+        if (!this.prefixed) {
+            return Decision.DEFAULT;
+        }
+
+        int size = batch.getUncompressed() == null ? 0 : batch.getUncompressed().readableBytes();
+        if (size < TINY_BATCH_BYTES) {
+            return Decision.UNCOMPRESSED;
+        }
+
+        if (size < SMALL_BATCH_BYTES || CPU_BUDGET.get().isExhausted()) {
+            return Decision.FAST;
+        }
+        return size >= LARGE_BATCH_BYTES ? Decision.STRONG : Decision.DEFAULT;
+    }
+
+    @Override
+    public BatchCompression getCompression(BedrockBatchWrapper wrapper) {
+        if (!this.prefixed) {
+            return this.defaultCompression;
+        }
+        return this.compressions[this.decide(wrapper).ordinal()];
+    }
+
+    @Override
+    public BatchCompression getCompression(CompressionAlgorithm algorithm) {
+        if (algorithm == PacketCompressionAlgorithm.NONE) {
+            return this.uncompressed;
+        } else if (algorithm == this.defaultCompression.getAlgorithm()) {
+            return this.defaultCompression;
+        }
+        throw new UnsupportedOperationException("Unsupported compression algorithm: " + algorithm);
+    }
+
+    @Override
+    public BatchCompression getDefaultCompression() {
+        return this.defaultCompression;
+    }
+
+    private static class CpuBudget {
+        private long windowStart;
+        private long spentNanos;
+
+        private void consume(long now, long nanos) {
+            if (now - this.windowStart > CPU_WINDOW_NANOS) {
+                this.windowStart = now;
+                this.spentNanos = 0;
+            }
+            this.spentNanos += nanos;
+        }
+
+        private boolean isExhausted() {
+            return this.spentNanos > CPU_BUDGET_NANOS && System.nanoTime() - this.windowStart <= CPU_WINDOW_NANOS;
+        }
+    }
+
+    /**
+     * Reports size and time of every compressed batch to {@link NetworkMetrics#adaptiveCompression}.
+     */
+    private static class MeasuredCompression implements BatchCompression {
+        private final BatchCompression compression;
+        private final Decision decision;
+
+        private MeasuredCompression(BatchCompression compression, Decision decision) {
+            this.compression = compression;
+            this.decision = decision;
+        }
+
+        @Override
+        public ByteBuf encode(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+            int uncompressedBytes = msg.readableBytes();
+            long start = System.nanoTime();
+            ByteBuf compressed = this.compression.encode(ctx, msg);
+            long end = System.nanoTime();
+            CPU_BUDGET.get().consume(end, end - start);
+
+            NetworkMetrics metrics = ctx.channel().attr(NetworkMetrics.ATTRIBUTE).get();
+            PacketDirection direction = ctx.channel().attr(PacketDirection.ATTRIBUTE).get();
+            if (metrics != null && direction != null) {
+                metrics.adaptiveCompression(this.decision, uncompressedBytes, compressed.readableBytes(), end - start, direction);
+            }
+            return compressed;
+        }
+
+        @Override
+        public ByteBuf decode(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+            return this.compression.decode(ctx, msg);
+        }
+
+        @Override
+        public CompressionAlgorithm getAlgorithm() {
+            return this.compression.getAlgorithm();
+        }
+
+        @Override
+        public void setLevel(int level) {
+            this.compression.setLevel(level);
+        }
+
+        @Override
+        public int getLevel() {
+            return this.compression.getLevel();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.concurrent.FastThreadLocal;
+import org.cloudburstmc.protocol.bedrock.data.CompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.BatchCompression;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Zlib compression which feeds the JDK deflater directly with the NIO buffers of a batch.
+ * Batches produced by the BedrockBatchEncoder are composite buffers, each component is passed to the deflater
+ * as it is instead of being copied into a single buffer first. Output is written straight to (direct) IO buffers.
+ * Every thread keeps its own deflater and inflater, so no native zlib context is allocated per batch.
+ */
+public class DeflateCompression implements BatchCompression {
+    private static final int MAX_DECOMPRESSED_BYTES = Integer.getInteger("bedrock.maxDecompressedBytes", 1024 * 1024 * 10);
+    private static final int MIN_WRITABLE_BYTES = 256;
+
+    private static final FastThreadLocal<Deflater> RAW_DEFLATER = deflater(true);
+    private static final FastThreadLocal<Deflater> DEFLATER = deflater(false);
+    private static final FastThreadLocal<Inflater> RAW_INFLATER = inflater(true);
+    private static final FastThreadLocal<Inflater> INFLATER = inflater(false);
+
+    private final boolean raw;
+    private int level = 7;
+
+    /**
+     * @param raw whether to use raw deflate, without zlib header and checksum
+     */
+    public DeflateCompression(boolean raw) {
+        this.raw = raw;
+    }
+
+    @Override
+    public ByteBuf encode(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+        Deflater deflater = (this.raw ? RAW_DEFLATER : DEFLATER).get();
+        deflater.setLevel(this.level);
+
+        ByteBuf out = ctx.alloc().ioBuffer(Math.max(MIN_WRITABLE_BYTES, msg.readableBytes() >> 1));
+        try {
+            for (ByteBuffer input : msg.nioBuffers()) {
+                deflater.setInput(input);
+                while (!deflater.needsInput()) {
+                    deflate(deflater, out);
+                }
+            }
+
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate(deflater, out);
+            }
+            return out.retain();
+        } finally {
+            deflater.reset(); // also drops the reference to the batch buffers
+            out.release();
+        }
+    }
+
+    @Override
+    public ByteBuf decode(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
+        Inflater inflater = (this.raw ? RAW_INFLATER : INFLATER).get();
+
+        ByteBuf out = ctx.alloc().ioBuffer(Math.max(MIN_WRITABLE_BYTES, msg.readableBytes() << 2));
+        try {
+            for (ByteBuffer input : msg.nioBuffers()) {
+                inflater.setInput(input);
+                while (!inflater.needsInput() && !inflater.finished()) {
+                    out.ensureWritable(MIN_WRITABLE_BYTES);
+                    int inflated = inflater.inflate(out.internalNioBuffer(out.writerIndex(), out.writableBytes()));
+                    if (inflated == 0 && inflater.needsDictionary()) {
+                        throw new DataFormatException("Preset dictionaries are not supported");
+                    }
+
+                    out.writerIndex(out.writerIndex() + inflated);
+                    if (out.readableBytes() > MAX_DECOMPRESSED_BYTES) {
+                        throw new DataFormatException("Decompressed data exceeds " + MAX_DECOMPRESSED_BYTES + " bytes");
+                    }
+                }
+            }
+            return out.retain();
+        } finally {
+            inflater.reset();
+            out.release();
+        }
+    }
+
+    private static void deflate(Deflater deflater, ByteBuf out) {
+        out.ensureWritable(MIN_WRITABLE_BYTES);
+        int written = deflater.deflate(out.internalNioBuffer(out.writerIndex(), out.writableBytes()));
+        out.writerIndex(out.writerIndex() + written);
+    }
+
+    @Override
+    public CompressionAlgorithm getAlgorithm() {
+        return PacketCompressionAlgorithm.ZLIB;
+    }
+
+    @Override
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public int getLevel() {
+        return this.level;
+    }
+
+    public boolean isRaw() {
+        return this.raw;
+    }
+
+    private static FastThreadLocal<Deflater> deflater(boolean raw) {
+        return new FastThreadLocal<>() {
+            @Override
+            protected Deflater initialValue() {
+                return new Deflater(Deflater.DEFAULT_COMPRESSION, raw);
+            }
+
+            @Override
+            protected void onRemoval(Deflater deflater) {
+                deflater.end();
+            }
+        };
+    }
+
+    private static FastThreadLocal<Inflater> inflater(boolean raw) {
+        return new FastThreadLocal<>() {
+            @Override
+            protected Inflater initialValue() {
+                return new Inflater(raw);
+            }
+
+            @Override
+            protected void onRemoval(Inflater inflater) {
+                inflater.end();
+            }
+        };
+    }
+}
@@ -16,17 +16,234 @@
 package dev.waterdog.waterdogpe.network.connection.codec.compression;
 
 import dev.waterdog.waterdogpe.network.NetworkMetrics;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.EncoderException;
+import io.netty.util.ReferenceCountUtil;
 import org.cloudburstmc.protocol.bedrock.PacketDirection;
 import org.cloudburstmc.protocol.bedrock.data.CompressionAlgorithm;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
 import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionCodec;
 import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionStrategy;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
 public class ProxiedCompressionCodec extends CompressionCodec {
 
+    /**
+     * Executor used to compress batches larger than offloadThreshold, or null to compress everything on the event loop.
+     */
+    private final Executor offloadExecutor;
+    private final int offloadThreshold;
+    /**
+     * Writes waiting for an offloaded batch in front of them to be compressed, so the channel keeps its write order.
+     */
+    private final Queue<PendingWrite> pendingWrites = new ArrayDeque<>();
+    /**
+     * Number of tasks in pendingWrites, writes made while there are any are only compressed once the tasks ran.
+     */
+    private int pendingTasks;
+    private boolean flushPending;
+    private boolean removed;
+
     public ProxiedCompressionCodec(CompressionStrategy strategy, boolean prefixed) {
+        this(strategy, prefixed, null, 0);
+    }
+
+    public ProxiedCompressionCodec(CompressionStrategy strategy, boolean prefixed, Executor offloadExecutor, int offloadThreshold) {
         super(strategy, prefixed);
+        this.offloadExecutor = offloadThreshold > 0 ? offloadExecutor : null;
+        this.offloadThreshold = offloadThreshold;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        boolean offload = this.shouldOffload(msg);
+        if (!offload && this.pendingWrites.isEmpty()) {
+            super.write(ctx, msg, promise);
+            return;
+        }
+
+        PendingWrite write = new PendingWrite(msg, promise);
+        this.pendingWrites.add(write);
+        if (this.pendingTasks > 0) {
+            write.held = true; // compressed once the pipeline changes in front of it are done
+            return;
+        }
+
+        if (!offload) {
+            write.encode(ctx); // still has to wait for the offloaded batches in front of it
+            return;
+        }
+
+        try {
+            this.offloadExecutor.execute(() -> {
+                write.encode(ctx);
+                ctx.executor().execute(() -> this.onEncoded(ctx, write));
+            });
+        } catch (RejectedExecutionException e) {
+            write.encode(ctx); // executor was shut down
+            this.writePending(ctx);
+        }
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        if (this.pendingWrites.isEmpty()) {
+            super.flush(ctx);
+        } else {
+            this.flushPending = true;
+        }
+    }
+
+    /**
+     * Whether writes are waiting for an offloaded batch to be compressed.
+     * Replacing this codec or changing the handlers in front of it is only safe once there are none,
+     * see {@link #executeAfterPendingWrites(ChannelHandlerContext, Runnable)}.
+     * Must be called from the event loop of the channel.
+     */
+    public boolean hasPendingWrites() {
+        return !this.pendingWrites.isEmpty();
+    }
+
+    /**
+     * Runs the task once the writes currently waiting for compression are written, or right away if there are none.
+     * Used to change the pipeline without writing batches compressed before the change after it.
+     * Writes made in the meantime are held back uncompressed, and are compressed by the compression codec
+     * of the pipeline once the task ran, even if the task replaced this codec.
+     * Must be called from the event loop of the channel.
+     */
+    public void executeAfterPendingWrites(ChannelHandlerContext ctx, Runnable task) {
+        if (this.pendingWrites.isEmpty()) {
+            this.runTask(ctx, task);
+        } else {
+            this.pendingWrites.add(new PendingWrite(task));
+            this.pendingTasks++;
+        }
+    }
+
+    private void runTask(ChannelHandlerContext ctx, Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            ctx.fireExceptionCaught(t);
+        }
+    }
+
+    private boolean shouldOffload(Object msg) {
+        return this.offloadExecutor != null && msg instanceof BedrockBatchWrapper batch && needsCompression(batch) &&
+                batch.getUncompressed() != null && batch.getUncompressed().readableBytes() >= this.offloadThreshold;
+    }
+
+    private void onEncoded(ChannelHandlerContext ctx, PendingWrite write) {
+        if (write.completed) {
+            write.release(); // failed when the codec was removed, nothing can be written anymore
+        } else {
+            this.writePending(ctx);
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        this.removed = true;
+
+        // Batches which are already compressed are written in order
+        PendingWrite write;
+        while ((write = this.pendingWrites.peek()) != null && write.done && !write.held && write.task == null) {
+            this.pendingWrites.poll();
+            write.write(ctx);
+        }
+
+        // Held back writes and tasks are passed on to the codec replacing this one, if there is any
+        ChannelHandlerContext successorCtx = ctx.pipeline().context(CompressionCodec.NAME);
+        if (successorCtx != null && successorCtx.handler() instanceof ProxiedCompressionCodec successor) {
+            while ((write = this.pendingWrites.peek()) != null && (write.held || write.task != null)) {
+                this.pendingWrites.poll();
+                if (write.task != null) {
+                    successor.executeAfterPendingWrites(successorCtx, write.task);
+                } else {
+                    write.forward(successor, successorCtx);
+                }
+            }
+        }
+
+        // The rest can not be written by this codec anymore
+        EncoderException cause = null;
+        while ((write = this.pendingWrites.poll()) != null) {
+            if (write.task != null) {
+                continue;
+            }
+            if (cause == null) {
+                cause = new EncoderException("Compression codec was removed before the batch was compressed");
+            }
+            write.fail(cause);
+        }
+        this.pendingTasks = 0;
+
+        if (this.flushPending) {
+            if (successorCtx != null && successorCtx.handler() instanceof ProxiedCompressionCodec successor) {
+                successor.flush(successorCtx);
+            } else {
+                ctx.flush();
+            }
+        }
+        this.flushPending = false;
+        super.handlerRemoved(ctx);
+    }
+
+    private void writePending(ChannelHandlerContext ctx) {
+        if (this.removed) {
+            return;
+        }
+
+        boolean written = false;
+        PendingWrite write;
+        while ((write = this.pendingWrites.peek()) != null && (write.done || write.held || write.task != null)) {
+            this.pendingWrites.poll();
+            if (write.task != null) {
+                this.pendingTasks--;
+                this.runTask(ctx, write.task);
+                if (this.removed) {
+                    return; // the remaining writes were passed on by handlerRemoved
+                }
+                continue;
+            }
+
+            write.encode(ctx); // held back writes are compressed only now
+            write.write(ctx);
+            written = true;
+        }
+
+        if (written && this.flushPending) {
+            this.flushPending = !this.pendingWrites.isEmpty();
+            ctx.flush();
+        }
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, BedrockBatchWrapper msg, List<Object> out) throws Exception {
+        NetworkMetrics metrics = ctx.channel().attr(NetworkMetrics.ATTRIBUTE).get();
+        if (metrics == null || !needsCompression(msg)) {
+            super.encode(ctx, msg, out);
+            return;
+        }
+
+        long start = System.nanoTime();
+        super.encode(ctx, msg, out);
+        PacketDirection direction = ctx.channel().attr(PacketDirection.ATTRIBUTE).get();
+        if (direction != null) {
+            metrics.compressionTime(System.nanoTime() - start, !ctx.executor().inEventLoop(), direction);
+        }
+    }
+
+    private static boolean needsCompression(BedrockBatchWrapper batch) {
+        return batch.isModified() || batch.getCompressed() == null;
     }
 
     @Override
@@ -35,6 +252,7 @@ public class ProxiedCompressionCodec extends CompressionCodec {
         PacketDirection direction = ctx.channel().attr(PacketDirection.ATTRIBUTE).get();
         if (metrics != null && direction != null) {
             metrics.passedThroughBytes(msg.getCompressed().readableBytes(), direction);
+            metrics.passedThroughBatch(direction);
         }
     }
 
@@ -56,6 +274,24 @@ public class ProxiedCompressionCodec extends CompressionCodec {
         }
     }
 
+    /**
+     * Drops the compressed frame of a batch which is about to be written to the given channel,
+     * so the batch is compressed again using the compression of the channel.
+     * Should be used when the receiving side does not support the algorithm the batch was received with.
+     */
+    public static void discardCompressed(Channel channel, BedrockBatchWrapper batch) {
+        if (batch.getCompressed() == null) {
+            return;
+        }
+        batch.setCompressed(null);
+
+        NetworkMetrics metrics = channel.attr(NetworkMetrics.ATTRIBUTE).get();
+        PacketDirection direction = channel.attr(PacketDirection.ATTRIBUTE).get();
+        if (metrics != null && direction != null) {
+            metrics.compressionMismatch(direction);
+        }
+    }
+
     @Override
     protected byte getCompressionHeader0(CompressionAlgorithm algorithm) {
         if (algorithm instanceof CompressionType type && type.getBedrockAlgorithm() == null) {
@@ -68,4 +304,88 @@ public class ProxiedCompressionCodec extends CompressionCodec {
     protected CompressionAlgorithm getCompressionAlgorithm0(byte header) {
         return CompressionType.fromHeaderId(header);
     }
+
+    private class PendingWrite {
+        private final Object msg;
+        private final ChannelPromise promise;
+        private final Runnable task;
+        private final List<Object> out = new ArrayList<>(1);
+        private Throwable cause;
+        private volatile boolean done;
+        // Whether the promise was completed, accessed from the event loop only
+        private boolean completed;
+        // Whether the write waits for a task in front of it before being compressed, accessed from the event loop only
+        private boolean held;
+
+        private PendingWrite(Object msg, ChannelPromise promise) {
+            this.msg = msg;
+            this.promise = promise;
+            this.task = null;
+            this.done = !(msg instanceof BedrockBatchWrapper);
+        }
+
+        private PendingWrite(Runnable task) {
+            this.msg = null;
+            this.promise = null;
+            this.task = task;
+            this.done = true;
+        }
+
+        private void encode(ChannelHandlerContext ctx) {
+            if (this.done) {
+                return;
+            }
+
+            try {
+                ProxiedCompressionCodec.this.encode(ctx, (BedrockBatchWrapper) this.msg, this.out);
+            } catch (Throwable t) {
+                this.cause = t;
+            } finally {
+                ReferenceCountUtil.release(this.msg);
+                this.done = true;
+            }
+        }
+
+        private void write(ChannelHandlerContext ctx) {
+            this.completed = true;
+            if (!(this.msg instanceof BedrockBatchWrapper)) {
+                ctx.write(this.msg, this.promise);
+            } else if (this.cause != null) {
+                this.release();
+                this.promise.tryFailure(this.cause instanceof EncoderException ? this.cause : new EncoderException(this.cause));
+            } else if (this.out.isEmpty()) {
+                this.promise.trySuccess();
+            } else {
+                for (int i = 0; i < this.out.size() - 1; i++) {
+                    ctx.write(this.out.get(i), ctx.voidPromise());
+                }
+                ctx.write(this.out.get(this.out.size() - 1), this.promise);
+            }
+        }
+
+        private void forward(ProxiedCompressionCodec successor, ChannelHandlerContext successorCtx) {
+            this.completed = true;
+            try {
+                successor.write(successorCtx, this.msg, this.promise);
+            } catch (Throwable t) {
+                ReferenceCountUtil.release(this.msg);
+                this.promise.tryFailure(t);
+            }
+        }
+
+        private void fail(Throwable cause) {
+            this.completed = true;
+            this.promise.tryFailure(cause);
+            if (!(this.msg instanceof BedrockBatchWrapper) || this.held) {
+                ReferenceCountUtil.release(this.msg);
+            } else if (this.done) {
+                this.release();
+            } // otherwise the output is released by onEncoded once the offloaded compression finishes
+        }
+
+        private void release() {
+            this.out.forEach(ReferenceCountUtil::release);
+            this.out.clear();
+        }
+    }
 }
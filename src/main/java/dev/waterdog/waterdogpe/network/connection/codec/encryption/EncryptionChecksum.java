@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.encryption;
+
+import io.netty.buffer.ByteBuf;
+
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes the checksum trailer of encrypted batches, the first 8 bytes of SHA-256(counter, payload, key).
+ * Every encoder and decoder owns its instance, so digest state and output arrays are reused for every batch.
+ */
+final class EncryptionChecksum {
+    static final int SIZE = 8;
+
+    private final MessageDigest digest;
+    private final byte[] key;
+    private final byte[] counter = new byte[8];
+    private final byte[] hash;
+    private final ByteBuffer trailer;
+    private long packetCounter;
+
+    EncryptionChecksum(SecretKey key) {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA-256 is not supported", e);
+        }
+        this.key = key.getEncoded();
+        this.hash = new byte[this.digest.getDigestLength()];
+        this.trailer = ByteBuffer.wrap(this.hash, 0, SIZE);
+    }
+
+    /**
+     * Computes the checksum of the next batch.
+     *
+     * @return buffer holding the trailer, valid until the next call
+     */
+    ByteBuffer compute(ByteBuf payload) {
+        long count = this.packetCounter++;
+        for (int i = 0; i < this.counter.length; i++) {
+            this.counter[i] = (byte) (count >>> (i * 8));
+        }
+
+        this.digest.update(this.counter);
+        if (payload.nioBufferCount() == 1) {
+            this.digest.update(payload.nioBuffer());
+        } else {
+            for (ByteBuffer buffer : payload.nioBuffers()) {
+                this.digest.update(buffer);
+            }
+        }
+        this.digest.update(this.key);
+        try {
+            this.digest.digest(this.hash, 0, this.hash.length);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+        return this.trailer.clear().limit(SIZE);
+    }
+
+    /**
+     * Computes the checksum of the next batch and compares it with the received trailer.
+     */
+    boolean verify(ByteBuf payload, ByteBuf trailer) {
+        this.compute(payload);
+        int index = trailer.readerIndex();
+        for (int i = 0; i < SIZE; i++) {
+            if (this.hash[i] != trailer.getByte(index + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.encryption;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.CorruptedFrameException;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.encryption.BedrockEncryptionDecoder;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Decrypts batches in place on the received buffer. Composite buffers are decrypted component by component,
+ * so no copy of the batch is made, and the checksum trailer is verified without allocating per batch.
+ */
+public class ProxiedEncryptionDecoder extends BedrockEncryptionDecoder {
+
+    private final Cipher cipher;
+    private final EncryptionChecksum checksum;
+
+    public ProxiedEncryptionDecoder(SecretKey key, Cipher cipher) {
+        super(key, cipher);
+        this.cipher = cipher;
+        this.checksum = new EncryptionChecksum(key);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, BedrockBatchWrapper msg, List<Object> out) throws Exception {
+        ByteBuf compressed = msg.getCompressed();
+        if (compressed.readableBytes() < EncryptionChecksum.SIZE) {
+            throw new CorruptedFrameException("Encrypted batch is too short");
+        }
+
+        if (compressed.nioBufferCount() == 1) {
+            ByteBuffer buffer = compressed.nioBuffer();
+            this.cipher.update(buffer, buffer.duplicate());
+        } else {
+            for (ByteBuffer buffer : compressed.nioBuffers()) {
+                this.cipher.update(buffer, buffer.duplicate());
+            }
+        }
+
+        ByteBuf payload = compressed.readSlice(compressed.readableBytes() - EncryptionChecksum.SIZE);
+        ByteBuf trailer = compressed.readSlice(EncryptionChecksum.SIZE);
+        if (!this.checksum.verify(payload, trailer)) {
+            throw new CorruptedFrameException("Invalid encryption trailer");
+        }
+
+        msg.setCompressed(payload.retain());
+        out.add(msg.retain());
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.encryption;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.encryption.BedrockEncryptionEncoder;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Encrypts batches straight into the NIO buffer of the outgoing direct buffer. Unlike the default encoder,
+ * composite batch buffers are encrypted component by component instead of being copied into one buffer first,
+ * and the checksum trailer is computed without allocating per batch.
+ */
+public class ProxiedEncryptionEncoder extends BedrockEncryptionEncoder {
+
+    private final Cipher cipher;
+    private final EncryptionChecksum checksum;
+
+    public ProxiedEncryptionEncoder(SecretKey key, Cipher cipher) {
+        super(key, cipher);
+        this.cipher = cipher;
+        this.checksum = new EncryptionChecksum(key);
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, BedrockBatchWrapper in, List<Object> out) throws Exception {
+        ByteBuf compressed = in.getCompressed();
+        int length = compressed.readableBytes() + EncryptionChecksum.SIZE;
+        ByteBuf buf = ctx.alloc().ioBuffer(length);
+        try {
+            ByteBuffer trailer = this.checksum.compute(compressed);
+            ByteBuffer output = buf.internalNioBuffer(buf.writerIndex(), length);
+
+            int written = 0;
+            if (compressed.nioBufferCount() == 1) {
+                written += this.cipher.update(compressed.nioBuffer(), output);
+            } else {
+                for (ByteBuffer input : compressed.nioBuffers()) {
+                    written += this.cipher.update(input, output);
+                }
+            }
+            written += this.cipher.update(trailer, output);
+
+            buf.writerIndex(buf.writerIndex() + written);
+            in.setCompressed(buf.retain());
+            out.add(in.retain());
+        } finally {
+            buf.release();
+        }
+    }
+}
@@ -28,6 +28,7 @@ import dev.waterdog.waterdogpe.network.connection.codec.compression.ProxiedCompr
 import dev.waterdog.waterdogpe.network.connection.codec.packet.BedrockPacketCodec;
 import dev.waterdog.waterdogpe.network.serverinfo.ServerInfo;
 import dev.waterdog.waterdogpe.player.ProxiedPlayer;
+import dev.waterdog.waterdogpe.utils.config.proxy.NetworkSettings;
 import io.netty.channel.*;
 import io.netty.util.concurrent.Promise;
 import lombok.RequiredArgsConstructor;
@@ -37,6 +38,8 @@ import org.cloudburstmc.netty.channel.raknet.config.RakChannelOption;
 import org.cloudburstmc.protocol.bedrock.PacketDirection;
 import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionCodec;
 
+import java.util.concurrent.TimeUnit;
+
 import static dev.waterdog.waterdogpe.network.connection.codec.initializer.ProxiedSessionInitializer.*;
 
 public class ProxiedClientSessionInitializer extends ChannelInitializer<Channel> {
@@ -66,13 +69,15 @@ public class ProxiedClientSessionInitializer extends ChannelInitializer<Channel>
             channel.config().setOption(RakChannelOption.RAK_METRICS, rakMetrics);
         }
 
+        NetworkSettings settings = this.player.getProxy().getNetworkSettings();
         channel.pipeline()
                 .addLast(FrameIdCodec.NAME, RAKNET_FRAME_CODEC)
                 .addLast(CompressionCodec.NAME, new ProxiedCompressionCodec(getCompressionStrategy(compression, rakVersion, true), false))
                 .addLast(BedrockBatchDecoder.NAME, BATCH_DECODER)
-                .addLast(BedrockBatchEncoder.NAME, new BedrockBatchEncoder())
+                .addLast(BedrockBatchEncoder.NAME, new BedrockBatchEncoder(settings.contiguousBatchEncoding()))
                 .addLast(BedrockPacketCodec.NAME, getPacketCodec(rakVersion))
-                .addLast(ClientPacketQueue.NAME, new ClientPacketQueue());
+                .addLast(ClientPacketQueue.NAME, new ClientPacketQueue(settings.getOutboundLatencyBudget(), TimeUnit.MILLISECONDS,
+                        settings.getOutboundMaxBatchPackets(), settings.getOutboundMaxBatchBytes()));
 
         ClientConnection connection = this.createConnection(channel);
         if (connection instanceof ChannelHandler handler) {
@@ -17,6 +17,7 @@ package dev.waterdog.waterdogpe.network.connection.codec.initializer;
 
 import dev.waterdog.waterdogpe.ProxyServer;
 import dev.waterdog.waterdogpe.network.NetworkMetrics;
+import dev.waterdog.waterdogpe.network.connection.codec.compression.ProxiedCompressionCodec;
 import dev.waterdog.waterdogpe.network.connection.codec.server.ServerErrorHandler;
 import dev.waterdog.waterdogpe.network.connection.peer.BedrockServerSession;
 import dev.waterdog.waterdogpe.network.connection.peer.ProxiedBedrockPeer;
@@ -29,6 +30,7 @@ import org.cloudburstmc.netty.channel.raknet.config.RakChannelOption;
 import org.cloudburstmc.netty.handler.codec.raknet.common.RakSessionCodec;
 import org.cloudburstmc.protocol.bedrock.BedrockPeer;
 import org.cloudburstmc.protocol.bedrock.PacketDirection;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionStrategy;
 
 public class ProxiedServerSessionInitializer extends ProxiedSessionInitializer<BedrockServerSession> {
 
@@ -60,6 +62,12 @@ public class ProxiedServerSessionInitializer extends ProxiedSessionInitializer<B
         channel.pipeline().addLast(ServerErrorHandler.NAME, new ServerErrorHandler.Child(proxy));
     }
 
+    @Override
+    protected ProxiedCompressionCodec createCompressionCodec(CompressionStrategy strategy) {
+        return new ProxiedCompressionCodec(strategy, false,
+                this.proxy.getCompressionExecutor(), this.proxy.getConfiguration().getCompressionOffloadThreshold());
+    }
+
     @Override
     protected BedrockServerSession createSession0(BedrockPeer peer, int subClientId) {
         this.proxy.getLogger().debug("[" + peer.getSocketAddress() + "] <-> Received first data");
@@ -19,6 +19,7 @@ import dev.waterdog.waterdogpe.ProxyServer;
 import dev.waterdog.waterdogpe.network.connection.codec.batch.BedrockBatchDecoder;
 import dev.waterdog.waterdogpe.network.connection.codec.batch.BedrockBatchEncoder;
 import dev.waterdog.waterdogpe.network.connection.codec.batch.FrameIdCodec;
+import dev.waterdog.waterdogpe.network.connection.codec.compression.DeflateCompression;
 import dev.waterdog.waterdogpe.network.connection.codec.compression.ProxiedCompressionCodec;
 import dev.waterdog.waterdogpe.network.connection.codec.packet.BedrockPacketCodec;
 import dev.waterdog.waterdogpe.network.connection.codec.packet.BedrockPacketCodec_v1;
@@ -35,7 +36,6 @@ import org.cloudburstmc.protocol.bedrock.BedrockSession;
 import org.cloudburstmc.protocol.bedrock.data.CompressionAlgorithm;
 import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
 import org.cloudburstmc.protocol.bedrock.netty.codec.compression.*;
-import org.cloudburstmc.protocol.common.util.Zlib;
 
 @Log4j2
 @AllArgsConstructor
@@ -43,8 +43,8 @@ public abstract class ProxiedSessionInitializer<T extends BedrockSession> extend
     public static final FrameIdCodec<RakMessage> RAKNET_FRAME_CODEC = FrameIdCodec.RAK_CODEC.apply(0xfe);
     public static final BedrockBatchDecoder BATCH_DECODER = new BedrockBatchDecoder();
 
-    public static final CompressionStrategy ZLIB_RAW_STRATEGY = new SimpleCompressionStrategy(new ZlibCompression(Zlib.RAW));
-    public static final CompressionStrategy ZLIB_STRATEGY = new SimpleCompressionStrategy(new ZlibCompression(Zlib.DEFAULT));
+    public static final CompressionStrategy ZLIB_RAW_STRATEGY = new SimpleCompressionStrategy(new DeflateCompression(true));
+    public static final CompressionStrategy ZLIB_STRATEGY = new SimpleCompressionStrategy(new DeflateCompression(false));
     public static final CompressionStrategy SNAPPY_STRATEGY = new SimpleCompressionStrategy(new SnappyCompression());
     public static final CompressionStrategy NOOP_STRATEGY = new SimpleCompressionStrategy(new NoopCompression());
 
@@ -56,13 +56,17 @@ public abstract class ProxiedSessionInitializer<T extends BedrockSession> extend
 
         channel.pipeline()
                 .addLast(FrameIdCodec.NAME, RAKNET_FRAME_CODEC)
-                .addLast(CompressionCodec.NAME, new ProxiedCompressionCodec(getCompressionStrategy(this.proxy.getConfiguration().getCompression(), rakVersion, true), false))
+                .addLast(CompressionCodec.NAME, this.createCompressionCodec(getCompressionStrategy(this.proxy.getConfiguration().getCompression(), rakVersion, true)))
                 .addLast(BedrockBatchDecoder.NAME, BATCH_DECODER)
-                .addLast(BedrockBatchEncoder.NAME, new BedrockBatchEncoder())
+                .addLast(BedrockBatchEncoder.NAME, new BedrockBatchEncoder(this.proxy.getNetworkSettings().contiguousBatchEncoding()))
                 .addLast(BedrockPacketCodec.NAME, getPacketCodec(rakVersion))
                 .addLast(BedrockPeer.NAME, new ProxiedBedrockPeer(channel, this::createSession, proxy));
     }
 
+    protected ProxiedCompressionCodec createCompressionCodec(CompressionStrategy strategy) {
+        return new ProxiedCompressionCodec(strategy, false);
+    }
+
     protected final T createSession(BedrockPeer peer, int subClientId) {
         T session = this.createSession0(peer, subClientId);
         this.initSession(session);
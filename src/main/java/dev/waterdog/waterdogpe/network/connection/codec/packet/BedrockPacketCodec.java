@@ -124,6 +124,17 @@ public abstract class BedrockPacketCodec extends MessageToMessageCodec<BedrockBa
         }
     }
 
+    /**
+     * Encodes the packet of the wrapper including its header, the same way it would be encoded by this codec
+     * when written to the channel. The result can be reused as a pre-encoded packet buffer.
+     */
+    public final void encodePacket(ByteBuf buf, BedrockPacketWrapper wrapper) {
+        BedrockPacket packet = wrapper.getPacket();
+        wrapper.setPacketId(getPacketId(packet));
+        this.encodeHeader(buf, wrapper);
+        this.codec.tryEncode(this.helper, buf, packet);
+    }
+
     public abstract void encodeHeader(ByteBuf buf, BedrockPacketWrapper msg);
 
     public abstract void decodeHeader(ByteBuf buf, BedrockPacketWrapper msg);
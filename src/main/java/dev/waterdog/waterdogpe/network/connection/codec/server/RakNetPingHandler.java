@@ -18,7 +18,9 @@ package dev.waterdog.waterdogpe.network.connection.codec.server;
 import dev.waterdog.waterdogpe.ProxyServer;
 import dev.waterdog.waterdogpe.event.defaults.ProxyPingEvent;
 import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
+import dev.waterdog.waterdogpe.player.ProxiedPlayer;
 import dev.waterdog.waterdogpe.utils.config.proxy.ProxyConfig;
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
@@ -27,14 +29,29 @@ import org.cloudburstmc.netty.channel.raknet.RakPing;
 import org.cloudburstmc.netty.channel.raknet.config.RakChannelOption;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Objects;
 import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Answers unconnected pings. If the ping cache interval is configured, the encoded pong is cached and reused until it passes or the
+ * player count, MOTD or maximum player count change, so a ping flood does not call {@link ProxyPingEvent}
+ * and encode a new pong for every ping. Listeners marking the event as not cacheable get it called for every ping.
+ */
 @Log4j2
 public class RakNetPingHandler extends SimpleChannelInboundHandler<RakPing> {
     public static final String NAME = "rak-ping-handler";
 
     private final ProxyServer proxy;
 
+    private ByteBuf cachedPong;
+    private long cacheExpiry;
+    private int cachedPlayerCount;
+    private int cachedMaxPlayers;
+    private String cachedMotd;
+    private String cachedSubMotd;
+
     public RakNetPingHandler(ProxyServer proxy) {
         this.proxy = proxy;
     }
@@ -42,21 +59,40 @@ public class RakNetPingHandler extends SimpleChannelInboundHandler<RakPing> {
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, RakPing rakPing) {
         ProxyConfig config = this.proxy.getConfiguration();
+        long guid = ctx.channel().config().getOption(RakChannelOption.RAK_GUID);
 
+        ByteBuf pong = this.getCachedPong(config);
+        if (pong == null) {
+            pong = this.createPong(config, rakPing, guid);
+        }
+        ctx.writeAndFlush(rakPing.reply(guid, pong));
+    }
+
+    private ByteBuf getCachedPong(ProxyConfig config) {
+        if (this.cachedPong == null || System.nanoTime() - this.cacheExpiry > 0 ||
+                this.cachedPlayerCount != this.proxy.getPlayerManager().getPlayers().size() ||
+                this.cachedMaxPlayers != config.getMaxPlayerCount() ||
+                !Objects.equals(this.cachedMotd, config.getMotd()) ||
+                !Objects.equals(this.cachedSubMotd, config.getSubMotd())) {
+            return null;
+        }
+        return this.cachedPong.duplicate();
+    }
+
+    private ByteBuf createPong(ProxyConfig config, RakPing rakPing, long guid) {
+        Collection<ProxiedPlayer> players = this.proxy.getPlayerManager().getPlayers().values();
         ProxyPingEvent event = new ProxyPingEvent(
                 config.getMotd(),
                 config.getSubMotd(),
                 "Survival",
                 "MCPE",
                 ProtocolVersion.latest().getMinecraftVersion(),
-                this.proxy.getPlayerManager().getPlayers().values(),
+                players,
                 config.getMaxPlayerCount(),
                 rakPing.getSender()
         );
         this.proxy.getEventManager().callEvent(event);
 
-        long guid = ctx.channel().config().getOption(RakChannelOption.RAK_GUID);
-
         StringJoiner joiner = new StringJoiner(";");
         joiner.add("MCPE");
         joiner.add(event.getMotd().replace(";", "\\;")); // MOTD
@@ -68,6 +104,21 @@ public class RakNetPingHandler extends SimpleChannelInboundHandler<RakPing> {
         joiner.add(event.getSubMotd()); // Sub-motd
         joiner.add(event.getGameType()); // Game type
         joiner.add("1"); // Nintendo limited
-        ctx.writeAndFlush(rakPing.reply(guid, Unpooled.wrappedBuffer(joiner.toString().getBytes(StandardCharsets.UTF_8))));
+        ByteBuf pong = Unpooled.wrappedBuffer(joiner.toString().getBytes(StandardCharsets.UTF_8));
+
+        int cacheInterval = this.proxy.getNetworkSettings().getPingCacheInterval();
+        if (!event.isCacheable() || cacheInterval <= 0) {
+            this.cachedPong = null;
+            return pong;
+        }
+
+        // Heap buffers wrapping a byte array need no release, duplicates can be handed out freely
+        this.cachedPong = Unpooled.unreleasableBuffer(pong);
+        this.cacheExpiry = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(cacheInterval);
+        this.cachedPlayerCount = players.size();
+        this.cachedMaxPlayers = config.getMaxPlayerCount();
+        this.cachedMotd = config.getMotd();
+        this.cachedSubMotd = config.getSubMotd();
+        return this.cachedPong.duplicate();
     }
 }
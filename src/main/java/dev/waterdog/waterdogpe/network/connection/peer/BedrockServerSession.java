@@ -17,6 +17,7 @@ package dev.waterdog.waterdogpe.network.connection.peer;
 
 import dev.waterdog.waterdogpe.network.connection.ProxiedConnection;
 import dev.waterdog.waterdogpe.network.connection.codec.batch.BatchFlags;
+import dev.waterdog.waterdogpe.network.connection.codec.batch.OutboundBatchStats;
 import dev.waterdog.waterdogpe.network.connection.codec.server.PacketQueueHandler;
 import dev.waterdog.waterdogpe.network.protocol.Signals;
 import dev.waterdog.waterdogpe.network.protocol.handler.ProxyBatchBridge;
@@ -70,6 +71,17 @@ public class BedrockServerSession extends BedrockSession implements ProxiedConne
         this.getPeer().sendPacket(batch);
     }
 
+    @Override
+    public void sendPacket(BedrockPacket packet) {
+        this.getPeer().onPacketQueued();
+        super.sendPacket(packet);
+    }
+
+    @Override
+    public OutboundBatchStats getOutboundBatchStats() {
+        return this.getPeer().getOutboundBatchStats();
+    }
+
     @Override
     public void sendPacketImmediately(BedrockPacket packet) {
         BedrockBatchWrapper batch = BedrockBatchWrapper.create(this.subClientId, packet);
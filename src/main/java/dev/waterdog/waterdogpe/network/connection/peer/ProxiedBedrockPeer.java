@@ -16,8 +16,13 @@
 package dev.waterdog.waterdogpe.network.connection.peer;
 
 import dev.waterdog.waterdogpe.ProxyServer;
+import dev.waterdog.waterdogpe.network.NetworkMetrics;
 import dev.waterdog.waterdogpe.network.connection.codec.batch.FrameIdCodec;
+import dev.waterdog.waterdogpe.network.connection.codec.batch.OutboundBatchStats;
+import dev.waterdog.waterdogpe.network.connection.codec.compression.AdaptiveCompressionStrategy;
 import dev.waterdog.waterdogpe.network.connection.codec.compression.CompressionType;
+import dev.waterdog.waterdogpe.network.connection.codec.encryption.ProxiedEncryptionDecoder;
+import dev.waterdog.waterdogpe.network.connection.codec.encryption.ProxiedEncryptionEncoder;
 import dev.waterdog.waterdogpe.network.connection.codec.compression.ProxiedCompressionCodec;
 import dev.waterdog.waterdogpe.network.connection.codec.packet.BedrockPacketCodec;
 import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
@@ -32,6 +37,7 @@ import org.cloudburstmc.netty.handler.codec.raknet.common.RakSessionCodec;
 import org.cloudburstmc.protocol.bedrock.BedrockPeer;
 import org.cloudburstmc.protocol.bedrock.BedrockSession;
 import org.cloudburstmc.protocol.bedrock.BedrockSessionFactory;
+import org.cloudburstmc.protocol.bedrock.PacketDirection;
 import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
 import org.cloudburstmc.protocol.bedrock.codec.BedrockCodecHelper;
 import org.cloudburstmc.protocol.bedrock.codec.v428.Bedrock_v428;
@@ -49,6 +55,7 @@ import org.cloudburstmc.protocol.bedrock.util.EncryptionUtils;
 import javax.crypto.SecretKey;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Log4j2
 public class ProxiedBedrockPeer extends BedrockPeer {
@@ -56,6 +63,9 @@ public class ProxiedBedrockPeer extends BedrockPeer {
     @Getter
     private CompressionStrategy compressionStrategy;
     private ProtocolVersion version = ProtocolVersion.oldest();
+    @Getter
+    private final OutboundBatchStats outboundBatchStats = new OutboundBatchStats();
+    private final AtomicLong firstQueuedTime = new AtomicLong();
 
     private final ProxyServer proxy;
 
@@ -124,8 +134,10 @@ public class ProxiedBedrockPeer extends BedrockPeer {
             while ((packet = this.packetQueue.poll()) != null) {
                 batch.getPackets().add(packet);
             }
-            if (!batch.getPackets().isEmpty()) {
-                this.channel.writeAndFlush(batch);
+            if (batch.getPackets().isEmpty()) {
+                batch.release();
+            } else {
+                this.writeQueuedBatch(batch);
             }
         } finally {
             this.flushScheduled.set(false);
@@ -137,10 +149,28 @@ public class ProxiedBedrockPeer extends BedrockPeer {
         }
     }
 
+    private void writeQueuedBatch(BedrockBatchWrapper batch) {
+        long queuedTime = this.firstQueuedTime.getAndSet(0);
+        long queueDelay = queuedTime == 0 ? 0 : System.nanoTime() - queuedTime;
+        this.outboundBatchStats.writeBatch(this.channel, this.channel, batch, queueDelay, PacketDirection.CLIENT_BOUND);
+    }
+
+    /**
+     * Marks the time a packet was added to the packet queue while it was empty,
+     * used to measure how long queued packets wait for the flush.
+     */
+    void onPacketQueued() {
+        this.firstQueuedTime.compareAndSet(0, System.nanoTime());
+    }
+
     public void sendPacket(BedrockBatchWrapper wrapper) {
         if (this.channel.eventLoop().inEventLoop()) {
             this.sendPacket0(wrapper);
         } else {
+            NetworkMetrics metrics = this.channel.attr(NetworkMetrics.ATTRIBUTE).get();
+            if (metrics != null) {
+                metrics.crossThreadWrite(PacketDirection.CLIENT_BOUND);
+            }
             this.channel.eventLoop().execute(() -> this.sendPacket0(wrapper));
         }
     }
@@ -151,10 +181,10 @@ public class ProxiedBedrockPeer extends BedrockPeer {
             return;
         }
         if (!(wrapper.getAlgorithm() instanceof PacketCompressionAlgorithm)) {
-            wrapper.setCompressed(null); // Do not allow using unsupported algorithms when sending to client
+            ProxiedCompressionCodec.discardCompressed(this.channel, wrapper); // Do not allow using unsupported algorithms when sending to client
         } else if (this.version.isBefore(ProtocolVersion.MINECRAFT_PE_1_20_60) && (this.compressionStrategy == null ||
                 !Objects.equals(wrapper.getAlgorithm(), this.compressionStrategy.getDefaultCompression().getAlgorithm()))) {
-            wrapper.setCompressed(null); // Before 1.20.60 dynamic compression is not supported
+            ProxiedCompressionCodec.discardCompressed(this.channel, wrapper); // Before 1.20.60 dynamic compression is not supported
         }
 
         this.flushPacketQueue();
@@ -196,16 +226,18 @@ public class ProxiedBedrockPeer extends BedrockPeer {
                 this.channel.pipeline().get(BedrockEncryptionDecoder.class) != null) {
             throw new IllegalStateException("Encryption is already enabled");
         }
-
         int protocolVersion = this.getCodec().getProtocolVersion();
         boolean useCtr = protocolVersion >= Bedrock_v428.CODEC.getProtocolVersion();
 
-        this.channel.pipeline().addAfter(FrameIdCodec.NAME, BedrockEncryptionEncoder.NAME,
-                new BedrockEncryptionEncoder(secretKey, EncryptionUtils.createCipher(useCtr, true, secretKey)));
-        this.channel.pipeline().addAfter(FrameIdCodec.NAME, BedrockEncryptionDecoder.NAME,
-                new BedrockEncryptionDecoder(secretKey, EncryptionUtils.createCipher(useCtr, false, secretKey)));
+        // Batches compressed before the handshake must not be encrypted
+        this.afterPendingCompression(() -> {
+            this.channel.pipeline().addAfter(FrameIdCodec.NAME, BedrockEncryptionEncoder.NAME,
+                    new ProxiedEncryptionEncoder(secretKey, EncryptionUtils.createCipher(useCtr, true, secretKey)));
+            this.channel.pipeline().addAfter(FrameIdCodec.NAME, BedrockEncryptionDecoder.NAME,
+                    new ProxiedEncryptionDecoder(secretKey, EncryptionUtils.createCipher(useCtr, false, secretKey)));
 
-        log.info("Encryption enabled for {}", getSocketAddress());
+            log.info("Encryption enabled for {}", getSocketAddress());
+        });
     }
 
     public void setCompression(CompressionAlgorithm algorithm) {
@@ -219,16 +251,42 @@ public class ProxiedBedrockPeer extends BedrockPeer {
     @Override
     public void setCompression(CompressionStrategy strategy) {
         boolean needsPrefix = this.getCodec().getProtocolVersion() >= ProtocolVersion.MINECRAFT_PE_1_20_60.getProtocol();
+        // Without the compression header every batch has to use the default compression
+        if (needsPrefix && this.proxy.getConfiguration().adaptiveCompression() && !(strategy instanceof AdaptiveCompressionStrategy)) {
+            strategy = new AdaptiveCompressionStrategy(strategy, needsPrefix);
+        }
+
+        ProxiedCompressionCodec codec = new ProxiedCompressionCodec(strategy, needsPrefix,
+                this.proxy.getCompressionExecutor(), this.proxy.getConfiguration().getCompressionOffloadThreshold());
 
         ChannelHandler handler = this.channel.pipeline().get(CompressionCodec.NAME);
         if (handler == null) {
-            this.channel.pipeline().addAfter(FrameIdCodec.NAME, CompressionCodec.NAME, new ProxiedCompressionCodec(strategy, needsPrefix));
+            this.channel.pipeline().addAfter(FrameIdCodec.NAME, CompressionCodec.NAME, codec);
         } else {
-            this.channel.pipeline().replace(CompressionCodec.NAME, CompressionCodec.NAME, new ProxiedCompressionCodec(strategy, needsPrefix));
+            // Batches still being compressed by the old codec have to be written before the ones passing the new codec
+            this.afterPendingCompression(() -> this.channel.pipeline().replace(CompressionCodec.NAME, CompressionCodec.NAME, codec));
         }
         this.compressionStrategy = strategy;
     }
 
+    /**
+     * Runs a change of the pipeline once the batches being compressed are written, so they are
+     * not written after batches passing the changed pipeline.
+     */
+    private void afterPendingCompression(Runnable task) {
+        if (!this.channel.eventLoop().inEventLoop()) {
+            this.channel.eventLoop().execute(() -> this.afterPendingCompression(task));
+            return;
+        }
+
+        ChannelHandlerContext ctx = this.channel.pipeline().context(CompressionCodec.NAME);
+        if (ctx != null && ctx.handler() instanceof ProxiedCompressionCodec codec) {
+            codec.executeAfterPendingWrites(ctx, task);
+        } else {
+            task.run();
+        }
+    }
+
     public boolean isSplitScreen() {
         return this.sessions.size() > 1;
     }
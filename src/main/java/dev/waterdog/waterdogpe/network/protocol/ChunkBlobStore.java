@@ -0,0 +1,214 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol;
+
+import dev.waterdog.waterdogpe.utils.XXHash64;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheMissResponsePacket;
+import org.cloudburstmc.protocol.common.util.Preconditions;
+
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Store of client cache blobs sent by downstream servers, shared by all players.
+ * Blob ids are XXH64 hashes of the blob content, so a blob received from one server can answer cache misses
+ * of any player, for example after transferring between servers running copies of the same world.
+ * Blobs whose content does not match their id are not stored, so one server can not poison the cache of another.
+ * The store is split into segments by blob id, each bounded by its share of the total size and evicting
+ * its least recently used blobs first.
+ */
+public class ChunkBlobStore {
+    public static final int DEFAULT_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final long segmentMaxBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public ChunkBlobStore(long maxBytes) {
+        this(maxBytes, DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * @param segments number of independently locked segments, must be a power of two
+     */
+    public ChunkBlobStore(long maxBytes, int segments) {
+        Preconditions.checkArgument(segments > 0 && (segments & (segments - 1)) == 0, "Segment count must be a power of two");
+        this.segmentMaxBytes = maxBytes / segments;
+        this.segments = new Segment[segments];
+        for (int i = 0; i < segments; i++) {
+            this.segments[i] = new Segment();
+        }
+    }
+
+    private Segment segment(long blobId) {
+        // Blob ids are hashes, their low bits are distributed well enough
+        return this.segments[(int) blobId & (this.segments.length - 1)];
+    }
+
+    /**
+     * Stores copies of the blobs sent by a downstream server.
+     */
+    public void store(Map<Long, ByteBuf> received) {
+        for (Map.Entry<Long, ByteBuf> entry : received.entrySet()) {
+            ByteBuf blob = entry.getValue();
+            if (blob == null || blob.readableBytes() > this.segmentMaxBytes) {
+                continue;
+            }
+
+            long blobId = entry.getKey();
+            Segment segment = this.segment(blobId);
+            if (segment.get(blobId) != null) {
+                continue;
+            }
+
+            byte[] data = ByteBufUtil.getBytes(blob);
+            if (XXHash64.hash(data) != blobId) {
+                this.rejected.increment();
+                continue;
+            }
+            this.evictions.add(segment.put(blobId, data, this.segmentMaxBytes));
+        }
+    }
+
+    /**
+     * @return the blob with the given id, or null if it is not stored
+     */
+    public ByteBuf get(long blobId) {
+        byte[] data = this.segment(blobId).get(blobId);
+        return data == null ? null : Unpooled.wrappedBuffer(data);
+    }
+
+    /**
+     * Answers blobs a client reported as missing from the store.
+     * Answered blob ids are moved from the naks to the acks, so the downstream server considers them delivered
+     * and does not send them again.
+     *
+     * @return response holding the answered blobs, or null if none of them is stored
+     */
+    public ClientCacheMissResponsePacket answerMisses(List<Long> naks, List<Long> acks) {
+        ClientCacheMissResponsePacket response = null;
+        ListIterator<Long> iterator = naks.listIterator();
+        while (iterator.hasNext()) {
+            long blobId = iterator.next();
+            ByteBuf blob = this.get(blobId);
+            if (blob == null) {
+                this.misses.increment();
+                continue;
+            }
+
+            if (response == null) {
+                response = new ClientCacheMissResponsePacket();
+            }
+            response.getBlobs().put(blobId, blob);
+            iterator.remove();
+            acks.add(blobId);
+            this.hits.increment();
+            this.bytesSaved.add(blob.readableBytes());
+        }
+        return response;
+    }
+
+    public int getBlobCount() {
+        int count = 0;
+        for (Segment segment : this.segments) {
+            count += segment.size();
+        }
+        return count;
+    }
+
+    public long getStoredBytes() {
+        long bytes = 0;
+        for (Segment segment : this.segments) {
+            bytes += segment.storedBytes();
+        }
+        return bytes;
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public double getHitRate() {
+        long hits = this.hits.sum();
+        long total = hits + this.misses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return amount of blob bytes answered by the proxy instead of being sent again by a downstream server
+     */
+    public long getBytesSaved() {
+        return this.bytesSaved.sum();
+    }
+
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @return amount of blobs which were not stored because their content did not match their id
+     */
+    public long getRejected() {
+        return this.rejected.sum();
+    }
+
+    private static class Segment {
+        private final Long2ObjectLinkedOpenHashMap<byte[]> blobs = new Long2ObjectLinkedOpenHashMap<>();
+        private long storedBytes;
+
+        private synchronized byte[] get(long blobId) {
+            return this.blobs.getAndMoveToLast(blobId);
+        }
+
+        /**
+         * @return amount of evicted blobs
+         */
+        private synchronized int put(long blobId, byte[] data, long maxBytes) {
+            byte[] previous = this.blobs.putAndMoveToLast(blobId, data);
+            this.storedBytes += data.length - (previous == null ? 0 : previous.length);
+
+            int evicted = 0;
+            while (this.storedBytes > maxBytes && !this.blobs.isEmpty()) {
+                this.storedBytes -= this.blobs.removeFirst().length;
+                evicted++;
+            }
+            return evicted;
+        }
+
+        private synchronized int size() {
+            return this.blobs.size();
+        }
+
+        private synchronized long storedBytes() {
+            return this.storedBytes;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol.handler;
+
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockPacketDefinition;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bitmap of packet ids that have to be decoded before a batch is forwarded.
+ * Packets outside of the interest are never decoded and are passed through as raw buffers,
+ * so a batch which contains only such packets can be forwarded without being re-encoded.
+ */
+public class PacketInterest {
+    /**
+     * Packet ids are encoded in the lower 10 bits of the packet header.
+     */
+    public static final int MAX_PACKET_ID = 0x3ff;
+
+    public static final PacketInterest ALL = new PacketInterest(null);
+
+    private static final Map<Class<?>, Set<Class<? extends BedrockPacket>>> handledPackets = new ConcurrentHashMap<>();
+
+    private final long[] bitmap;
+
+    private PacketInterest(long[] bitmap) {
+        this.bitmap = bitmap;
+    }
+
+    /**
+     * Creates packet interest from the given packet types using ids from the given codec.
+     * Packets which are not known to the codec are ignored.
+     *
+     * @param packets packet types to decode, null if every packet has to be decoded
+     */
+    public static PacketInterest of(BedrockCodec codec, Collection<Class<? extends BedrockPacket>> packets) {
+        if (packets == null) {
+            return ALL;
+        }
+
+        long[] bitmap = new long[(MAX_PACKET_ID >> 6) + 1];
+        for (Class<? extends BedrockPacket> packet : packets) {
+            BedrockPacketDefinition<? extends BedrockPacket> definition = codec.getPacketDefinition(packet);
+            if (definition != null) {
+                int id = definition.getId() & MAX_PACKET_ID;
+                bitmap[id >> 6] |= 1L << id;
+            }
+        }
+        return new PacketInterest(bitmap);
+    }
+
+    /**
+     * Returns packet types for which the given handler class, or any of its superclasses, declares a handle method.
+     * Handlers which override {@link BedrockPacketHandler#handlePacket(BedrockPacket)} to look at every packet
+     * can not be described by this and should not use it.
+     */
+    public static Set<Class<? extends BedrockPacket>> getHandledPackets(Class<? extends BedrockPacketHandler> handlerClass) {
+        return handledPackets.computeIfAbsent(handlerClass, PacketInterest::scanHandledPackets);
+    }
+
+    private static Set<Class<? extends BedrockPacket>> scanHandledPackets(Class<?> handlerClass) {
+        Set<Class<? extends BedrockPacket>> packets = new ObjectOpenHashSet<>();
+        for (Class<?> clazz = handlerClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                if (!method.getName().equals("handle") || method.getParameterCount() != 1 ||
+                        method.isBridge() || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+
+                Class<?> parameter = method.getParameterTypes()[0];
+                if (BedrockPacket.class.isAssignableFrom(parameter) && parameter != BedrockPacket.class) {
+                    packets.add(parameter.asSubclass(BedrockPacket.class));
+                }
+            }
+        }
+        return Collections.unmodifiableSet(packets);
+    }
+
+    public boolean isInterested(int packetId) {
+        if (this.bitmap == null) {
+            return true;
+        }
+        return packetId >= 0 && packetId <= MAX_PACKET_ID && (this.bitmap[packetId >> 6] & (1L << packetId)) != 0;
+    }
+
+    public boolean isAll() {
+        return this.bitmap == null;
+    }
+}
@@ -20,7 +20,18 @@ import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
 import org.cloudburstmc.protocol.common.PacketSignal;
 
+import java.util.Collection;
+
 public interface PluginPacketHandler extends BedrockPacketHandler {
 
     PacketSignal handlePacket(BedrockPacket packet, PacketDirection direction);
+
+    /**
+     * Packets this handler wants to receive. Packets no handler is interested in are forwarded without being decoded.
+     *
+     * @return interested packet types or null to receive every packet
+     */
+    default Collection<Class<? extends BedrockPacket>> getInterestedPackets() {
+        return null;
+    }
 }
@@ -19,7 +19,11 @@ import dev.waterdog.waterdogpe.network.connection.ProxiedConnection;
 import dev.waterdog.waterdogpe.network.protocol.Signals;
 import io.netty.buffer.ByteBuf;
 import io.netty.util.ReferenceCountUtil;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.log4j.Log4j2;
 import org.cloudburstmc.protocol.bedrock.PacketDirection;
 import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
@@ -32,7 +36,10 @@ import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
 import org.cloudburstmc.protocol.common.PacketSignal;
 import org.cloudburstmc.protocol.common.util.Preconditions;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.ListIterator;
+import java.util.Set;
 
 @Data
 @Log4j2
@@ -44,6 +51,16 @@ public class ProxyBatchBridge implements BedrockPacketHandler {
     private boolean forceEncode;
     private PacketDirection direction;
 
+    @Setter(AccessLevel.NONE)
+    private PacketInterest packetInterest;
+    // Plugin handlers the plugin interest was built for, compared against the current handlers of the player
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private PluginPacketHandler[] pluginHandlers;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private PacketInterest pluginInterest;
+
     public ProxyBatchBridge(BedrockCodec codec, BedrockCodecHelper helper, ProxyPacketHandler handler, PacketDirection direction) {
         this.codec = codec;
         this.helper = helper;
@@ -52,9 +69,17 @@ public class ProxyBatchBridge implements BedrockPacketHandler {
     }
 
     public void onBedrockBatch(ProxiedConnection source, BedrockBatchWrapper batch) {
+        PacketInterest interest = this.getPacketInterest();
         ListIterator<BedrockPacketWrapper> iterator = batch.getPackets().listIterator();
         while (iterator.hasNext()) {
             BedrockPacketWrapper wrapper = iterator.next();
+            if (!this.isInterested(interest, wrapper.getPacketId())) {
+                if (wrapper.getPacket() == null && this.handler.doRawPacketRewrite(wrapper)) {
+                    batch.modify();
+                }
+                continue; // nobody looks at the decoded packet, forward the raw buffer
+            }
+
             if (wrapper.getPacket() == null) {
                 this.decodePacket(wrapper, source.getPacketDirection());
             }
@@ -90,6 +115,60 @@ public class ProxyBatchBridge implements BedrockPacketHandler {
         }
     }
 
+    private boolean isInterested(PacketInterest interest, int packetId) {
+        if (this.forceEncode || interest.isInterested(packetId)) {
+            return true;
+        }
+
+        Collection<PluginPacketHandler> pluginHandlers = this.handler.getPluginPacketHandlers();
+        return !pluginHandlers.isEmpty() && this.getPluginInterest(pluginHandlers).isInterested(packetId);
+    }
+
+    /**
+     * Packets any of the given plugin handlers wants to receive. Rebuilt whenever the plugin handlers change.
+     */
+    private PacketInterest getPluginInterest(Collection<PluginPacketHandler> pluginHandlers) {
+        if (this.pluginInterest != null && this.isSamePluginHandlers(pluginHandlers)) {
+            return this.pluginInterest;
+        }
+
+        this.pluginHandlers = pluginHandlers.toArray(new PluginPacketHandler[0]);
+        Set<Class<? extends BedrockPacket>> packets = new ObjectOpenHashSet<>();
+        for (PluginPacketHandler pluginHandler : this.pluginHandlers) {
+            Collection<Class<? extends BedrockPacket>> interested = pluginHandler.getInterestedPackets();
+            if (interested == null) {
+                packets = null; // handler receives every packet
+                break;
+            }
+            packets.addAll(interested);
+        }
+        return this.pluginInterest = PacketInterest.of(this.codec, packets);
+    }
+
+    private boolean isSamePluginHandlers(Collection<PluginPacketHandler> pluginHandlers) {
+        if (pluginHandlers.size() != this.pluginHandlers.length) {
+            return false;
+        }
+
+        Iterator<PluginPacketHandler> iterator = pluginHandlers.iterator();
+        for (PluginPacketHandler pluginHandler : this.pluginHandlers) {
+            if (iterator.next() != pluginHandler) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Packets the current handler and its rewrite maps have to see decoded. Rebuilt once the handler changes.
+     */
+    public PacketInterest getPacketInterest() {
+        if (this.packetInterest == null) {
+            this.packetInterest = PacketInterest.of(this.codec, this.handler.getInterestedPackets());
+        }
+        return this.packetInterest;
+    }
+
     private void decodePacket(BedrockPacketWrapper wrapper, PacketDirection direction) {
         ByteBuf msg = wrapper.getPacketBuffer().retainedSlice();
         try {
@@ -110,5 +189,8 @@ public class ProxyBatchBridge implements BedrockPacketHandler {
     public void setHandler(ProxyPacketHandler handler) {
         Preconditions.checkNotNull(handler, "Handler can not be null");
         this.handler = handler;
+        this.packetInterest = null;
+        this.pluginHandlers = null;
+        this.pluginInterest = null;
     }
 }
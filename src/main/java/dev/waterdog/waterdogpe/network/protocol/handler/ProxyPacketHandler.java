@@ -18,10 +18,14 @@ package dev.waterdog.waterdogpe.network.protocol.handler;
 import dev.waterdog.waterdogpe.network.connection.ProxiedConnection;
 import dev.waterdog.waterdogpe.network.protocol.rewrite.RewriteMaps;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
 import org.cloudburstmc.protocol.common.PacketSignal;
 
+import java.util.Collection;
+import java.util.Collections;
+
 public interface ProxyPacketHandler extends BedrockPacketHandler {
     void sendProxiedBatch(BedrockBatchWrapper batch);
 
@@ -35,4 +39,30 @@ public interface ProxyPacketHandler extends BedrockPacketHandler {
     default PacketSignal doPacketRewrite(BedrockPacket packet) {
         return this.getRewriteMaps().getEntityMap().doRewrite(packet);
     }
+
+    /**
+     * Rewrites a packet which is not part of {@link #getInterestedPackets()} directly on its encoded buffer.
+     *
+     * @return true if the packet buffer was rewritten
+     */
+    default boolean doRawPacketRewrite(BedrockPacketWrapper wrapper) {
+        return false;
+    }
+
+    /**
+     * Packets which have to be decoded and passed to this handler, including the packets handled by rewrite maps.
+     * Every other packet is forwarded as a raw buffer without being decoded.
+     *
+     * @return interested packet types or null if every packet has to be decoded
+     */
+    default Collection<Class<? extends BedrockPacket>> getInterestedPackets() {
+        return null;
+    }
+
+    /**
+     * Plugin handlers which receive packets passing through this handler.
+     */
+    default Collection<PluginPacketHandler> getPluginPacketHandlers() {
+        return Collections.emptyList();
+    }
 }
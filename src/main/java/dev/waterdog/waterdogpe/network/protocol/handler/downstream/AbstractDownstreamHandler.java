@@ -17,11 +17,13 @@ package dev.waterdog.waterdogpe.network.protocol.handler.downstream;
 
 import dev.waterdog.waterdogpe.command.Command;
 import dev.waterdog.waterdogpe.network.connection.client.ClientConnection;
+import dev.waterdog.waterdogpe.network.protocol.ChunkBlobStore;
 import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
 import dev.waterdog.waterdogpe.network.protocol.handler.ProxyPacketHandler;
 import dev.waterdog.waterdogpe.network.protocol.handler.TransferCallback;
 import dev.waterdog.waterdogpe.network.protocol.registry.FakeDefinitionRegistry;
 import dev.waterdog.waterdogpe.network.protocol.rewrite.RewriteMaps;
+import dev.waterdog.waterdogpe.network.protocol.user.HandshakeUtils;
 import dev.waterdog.waterdogpe.player.ProxiedPlayer;
 import dev.waterdog.waterdogpe.network.protocol.Signals;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
@@ -54,6 +56,17 @@ public abstract class AbstractDownstreamHandler implements ProxyPacketHandler {
         this.connection = connection;
     }
 
+    /**
+     * Enables encryption of the downstream connection requested by the server.
+     */
+    protected void enableEncryption(ServerToClientHandshakePacket packet) {
+        try {
+            this.connection.enableEncryption(HandshakeUtils.createDownstreamSecretKey(this.player.getLoginData(), packet));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to enable encryption", e);
+        }
+    }
+
     @Override
     public PacketSignal handle(PlayStatusPacket packet) {
         if (packet.getStatus() != PlayStatusPacket.Status.PLAYER_SPAWN) {
@@ -154,6 +167,11 @@ public abstract class AbstractDownstreamHandler implements ProxyPacketHandler {
 
     @Override
     public PacketSignal handle(ClientCacheMissResponsePacket packet) {
+        ChunkBlobStore blobStore = this.player.getProxy().getChunkBlobStore();
+        if (blobStore != null) {
+            blobStore.store(packet.getBlobs());
+        }
+
         if (this.player.getProtocol().isBefore(ProtocolVersion.MINECRAFT_PE_1_18_30)) {
             this.player.getChunkBlobs().removeAll(packet.getBlobs().keySet());
         }
@@ -17,8 +17,13 @@ package dev.waterdog.waterdogpe.network.protocol.handler.downstream;
 
 import dev.waterdog.waterdogpe.network.connection.client.ClientConnection;
 import dev.waterdog.waterdogpe.network.connection.handler.ReconnectReason;
+import dev.waterdog.waterdogpe.network.protocol.handler.PacketInterest;
 import dev.waterdog.waterdogpe.network.protocol.handler.PluginPacketHandler;
+import dev.waterdog.waterdogpe.network.protocol.rewrite.RawEntityIdRewriter;
+import dev.waterdog.waterdogpe.network.protocol.rewrite.RewriteMaps;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import org.cloudburstmc.protocol.bedrock.PacketDirection;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
 import org.cloudburstmc.protocol.bedrock.packet.*;
 import dev.waterdog.waterdogpe.event.defaults.FastTransferRequestEvent;
 import dev.waterdog.waterdogpe.event.defaults.PostTransferCompleteEvent;
@@ -30,6 +35,9 @@ import org.cloudburstmc.protocol.common.PacketSignal;
 
 import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
 
+import java.util.Collection;
+import java.util.Set;
+
 import static dev.waterdog.waterdogpe.network.protocol.Signals.mergeSignals;
 import static dev.waterdog.waterdogpe.network.protocol.user.PlayerRewriteUtils.injectEntityImmobile;
 import static dev.waterdog.waterdogpe.network.protocol.user.PlayerRewriteUtils.injectInputLocks;
@@ -51,6 +59,32 @@ public class ConnectedDownstreamHandler extends AbstractDownstreamHandler {
         return signal;
     }
 
+    @Override
+    public Collection<Class<? extends BedrockPacket>> getInterestedPackets() {
+        RewriteMaps rewriteMaps = this.getRewriteMaps();
+        Set<Class<? extends BedrockPacket>> packets = new ObjectOpenHashSet<>(PacketInterest.getHandledPackets(this.getClass()));
+        for (Class<? extends BedrockPacket> packet : PacketInterest.getHandledPackets(rewriteMaps.getEntityMap().getClass())) {
+            if (!RawEntityIdRewriter.PACKETS.contains(packet)) { // rewritten without decoding, see doRawPacketRewrite()
+                packets.add(packet);
+            }
+        }
+        packets.addAll(PacketInterest.getHandledPackets(rewriteMaps.getEntityTracker().getClass()));
+        if (rewriteMaps.getBlockMap() != null) {
+            packets.addAll(rewriteMaps.getBlockMap().getInterestedPackets());
+        }
+        return packets;
+    }
+
+    @Override
+    public boolean doRawPacketRewrite(BedrockPacketWrapper wrapper) {
+        return this.getRewriteMaps().getEntityMap().doRawRewrite(wrapper);
+    }
+
+    @Override
+    public Collection<PluginPacketHandler> getPluginPacketHandlers() {
+        return this.player.getPluginPacketHandlers();
+    }
+
     @Override
     public PacketSignal handle(LevelChunkPacket packet) {
         // Remember whether this server serves chunks via the sub-chunk request system so injected
@@ -15,7 +15,6 @@
 
 package dev.waterdog.waterdogpe.network.protocol.handler.downstream;
 
-import com.nimbusds.jwt.SignedJWT;
 import dev.waterdog.waterdogpe.network.connection.client.ClientConnection;
 import dev.waterdog.waterdogpe.network.connection.handler.ReconnectReason;
 import dev.waterdog.waterdogpe.network.protocol.registry.FakeDefinitionRegistry;
@@ -32,13 +31,8 @@ import dev.waterdog.waterdogpe.network.protocol.rewrite.types.StartGameSettings;
 import dev.waterdog.waterdogpe.player.ProxiedPlayer;
 import dev.waterdog.waterdogpe.network.protocol.Signals;
 import dev.waterdog.waterdogpe.utils.types.TranslationContainer;
-import org.cloudburstmc.protocol.bedrock.util.EncryptionUtils;
 import org.cloudburstmc.protocol.common.PacketSignal;
 
-import javax.crypto.SecretKey;
-import java.net.URI;
-import java.security.interfaces.ECPublicKey;
-import java.util.Base64;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class InitialHandler extends AbstractDownstreamHandler {
@@ -68,19 +62,7 @@ public class InitialHandler extends AbstractDownstreamHandler {
 
     @Override
     public final PacketSignal handle(ServerToClientHandshakePacket packet) {
-        try {
-            SignedJWT saltJwt = SignedJWT.parse(packet.getJwt());
-            URI x5u = saltJwt.getHeader().getX509CertURL();
-            ECPublicKey serverKey = EncryptionUtils.parseKey(x5u.toASCIIString());
-            SecretKey key = EncryptionUtils.getSecretKey(
-                    this.player.getLoginData().getKeyPair().getPrivate(),
-                    serverKey,
-                    Base64.getDecoder().decode(saltJwt.getJWTClaimsSet().getStringClaim("salt"))
-            );
-            this.connection.enableEncryption(key);
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to enable encryption", e);
-        }
+        this.enableEncryption(packet);
 
         ClientToServerHandshakePacket clientToServerHandshake = new ClientToServerHandshakePacket();
         this.connection.sendPacket(clientToServerHandshake);
@@ -127,6 +109,7 @@ public class InitialHandler extends AbstractDownstreamHandler {
         if (this.player.getProtocol().isBeforeOrEqual(ProtocolVersion.MINECRAFT_PE_1_16_20)) {
             BlockPalette palette = BlockPalette.getPalette(packet.getBlockPalette(), this.player.getProtocol());
             rewriteData.setBlockPalette(palette);
+            rewriteData.setDownstreamBlockPalette(palette);
             rewriteData.setBlockPaletteRewrite(palette.createRewrite(palette));
             this.player.getRewriteMaps().setBlockMap(new BlockMap(this.player));
         } else {
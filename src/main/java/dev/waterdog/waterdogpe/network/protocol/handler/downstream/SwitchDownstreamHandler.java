@@ -15,7 +15,6 @@
 
 package dev.waterdog.waterdogpe.network.protocol.handler.downstream;
 
-import com.nimbusds.jwt.SignedJWT;
 import dev.waterdog.waterdogpe.network.connection.client.ClientConnection;
 import dev.waterdog.waterdogpe.network.connection.handler.ReconnectReason;
 import dev.waterdog.waterdogpe.network.protocol.handler.TransferCallback;
@@ -40,14 +39,9 @@ import it.unimi.dsi.fastutil.longs.Long2LongMap;
 import it.unimi.dsi.fastutil.longs.LongSet;
 import it.unimi.dsi.fastutil.objects.ObjectSet;
 import org.cloudburstmc.protocol.bedrock.data.HudElement;
-import org.cloudburstmc.protocol.bedrock.util.EncryptionUtils;
 import org.cloudburstmc.protocol.common.PacketSignal;
 
-import javax.crypto.SecretKey;
-import java.net.URI;
-import java.security.interfaces.ECPublicKey;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
@@ -65,19 +59,7 @@ public class SwitchDownstreamHandler extends AbstractDownstreamHandler {
 
     @Override
     public final PacketSignal handle(ServerToClientHandshakePacket packet) {
-        try {
-            SignedJWT saltJwt = SignedJWT.parse(packet.getJwt());
-            URI x5u = saltJwt.getHeader().getX509CertURL();
-            ECPublicKey serverKey = EncryptionUtils.parseKey(x5u.toASCIIString());
-            SecretKey key = EncryptionUtils.getSecretKey(
-                    this.player.getLoginData().getKeyPair().getPrivate(),
-                    serverKey,
-                    Base64.getDecoder().decode(saltJwt.getJWTClaimsSet().getStringClaim("salt"))
-            );
-            this.connection.enableEncryption(key);
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to enable encryption", e);
-        }
+        this.enableEncryption(packet);
 
         ClientToServerHandshakePacket clientToServerHandshake = new ClientToServerHandshakePacket();
         this.connection.sendPacket(clientToServerHandshake);
@@ -121,6 +103,7 @@ public class SwitchDownstreamHandler extends AbstractDownstreamHandler {
 
         if (this.player.getProtocol().isBeforeOrEqual(ProtocolVersion.MINECRAFT_PE_1_16_20)) {
             BlockPalette palette = BlockPalette.getPalette(packet.getBlockPalette(), this.player.getProtocol());
+            rewriteData.setDownstreamBlockPalette(palette);
             rewriteData.setBlockPaletteRewrite(palette.createRewrite(rewriteData.getBlockPalette()));
         } else {
             rewriteData.setBlockProperties(packet.getBlockProperties());
@@ -181,7 +164,7 @@ public class SwitchDownstreamHandler extends AbstractDownstreamHandler {
         LongSet blobs = this.player.getChunkBlobs();
         if (this.player.getProtocol().isBefore(ProtocolVersion.MINECRAFT_PE_1_18_30) &&
                 this.player.getLoginData().getCachePacket().isSupported() && !blobs.isEmpty()) {
-            injectChunkCacheBlobs(this.player.getConnection(), blobs);
+            injectChunkCacheBlobs(this.player.getConnection(), blobs, this.player.getProxy().getChunkBlobStore());
         }
         this.player.getChunkBlobs().clear();
 
@@ -17,8 +17,12 @@ package dev.waterdog.waterdogpe.network.protocol.handler.upstream;
 
 import dev.waterdog.waterdogpe.network.connection.ProxiedConnection;
 import dev.waterdog.waterdogpe.network.connection.client.ClientConnection;
+import dev.waterdog.waterdogpe.network.protocol.ChunkBlobStore;
+import dev.waterdog.waterdogpe.network.protocol.handler.PacketInterest;
+import dev.waterdog.waterdogpe.network.protocol.handler.PluginPacketHandler;
 import dev.waterdog.waterdogpe.network.protocol.handler.ProxyPacketHandler;
 import dev.waterdog.waterdogpe.network.protocol.rewrite.RewriteMaps;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import lombok.Setter;
 import org.cloudburstmc.protocol.bedrock.data.PlayerActionType;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
@@ -31,6 +35,9 @@ import dev.waterdog.waterdogpe.player.ProxiedPlayer;
 import dev.waterdog.waterdogpe.network.protocol.Signals;
 import org.cloudburstmc.protocol.common.PacketSignal;
 
+import java.util.Collection;
+import java.util.Set;
+
 import static dev.waterdog.waterdogpe.network.protocol.user.PlayerRewriteUtils.injectAirSubChunkResponse;
 
 /**
@@ -110,10 +117,20 @@ public class ConnectedUpstreamHandler extends AbstractUpstreamHandler implements
 
     @Override
     public PacketSignal handle(ClientCacheBlobStatusPacket packet) {
+        PacketSignal signal = PacketSignal.UNHANDLED;
+        ChunkBlobStore blobStore = this.player.getProxy().getChunkBlobStore();
+        if (blobStore != null && !packet.getNaks().isEmpty()) {
+            ClientCacheMissResponsePacket response = blobStore.answerMisses(packet.getNaks(), packet.getAcks());
+            if (response != null) {
+                this.player.getConnection().sendPacket(response);
+                signal = PacketSignal.HANDLED;
+            }
+        }
+
         if (this.player.getProtocol().isBefore(ProtocolVersion.MINECRAFT_PE_1_18_30)) {
             this.player.getChunkBlobs().addAll(packet.getNaks());
         }
-        return PacketSignal.UNHANDLED;
+        return signal;
     }
 
     @Override
@@ -133,6 +150,18 @@ public class ConnectedUpstreamHandler extends AbstractUpstreamHandler implements
         return false;
     }
 
+    @Override
+    public Collection<Class<? extends BedrockPacket>> getInterestedPackets() {
+        Set<Class<? extends BedrockPacket>> packets = new ObjectOpenHashSet<>(PacketInterest.getHandledPackets(this.getClass()));
+        packets.addAll(PacketInterest.getHandledPackets(this.getRewriteMaps().getEntityMap().getClass()));
+        return packets;
+    }
+
+    @Override
+    public Collection<PluginPacketHandler> getPluginPacketHandlers() {
+        return this.player.getPluginPacketHandlers();
+    }
+
     @Override
     public ProxiedConnection getConnection() {
         return this.targetConnection;
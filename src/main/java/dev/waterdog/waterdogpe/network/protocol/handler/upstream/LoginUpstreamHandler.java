@@ -19,6 +19,7 @@ import dev.waterdog.waterdogpe.ProxyServer;
 import dev.waterdog.waterdogpe.WaterdogPE;
 import dev.waterdog.waterdogpe.event.defaults.IncompatibleProtocolEvent;
 import dev.waterdog.waterdogpe.event.defaults.PlayerAuthenticatedEvent;
+import dev.waterdog.waterdogpe.network.NetworkMetrics;
 import dev.waterdog.waterdogpe.network.connection.codec.compression.CompressionType;
 import dev.waterdog.waterdogpe.network.connection.peer.BedrockServerSession;
 import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
@@ -36,7 +37,10 @@ import io.netty.channel.Channel;
 import io.netty.util.concurrent.ScheduledFuture;
 
 import java.net.InetSocketAddress;
+import java.security.KeyPair;
 import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -50,6 +54,8 @@ public class LoginUpstreamHandler implements BedrockPacketHandler {
 
     // Whether login was allowed
     private boolean loginInitialized;
+    // Whether a LoginPacket was received and handed over for verification
+    private boolean loginPending;
     // Whether the login handshake completed successfully; guards the login-timeout task
     private boolean loginCompleted;
     // Kicks the connection if the login handshake is not completed in time
@@ -183,50 +189,123 @@ public class LoginUpstreamHandler implements BedrockPacketHandler {
             this.compression = CompressionType.ZLIB;
         }
 
-        HandshakeEntry handshakeEntry = null;
-        boolean strictAuth = this.proxy.getConfiguration().isOnlineMode();
+        if (this.loginPending) {
+            this.session.disconnect("Wrong login flow");
+            return PacketSignal.HANDLED;
+        }
+        this.loginPending = true;
 
+        boolean strictAuth = this.proxy.getConfiguration().isOnlineMode();
         this.session.setLogging(WaterdogPE.version().debug());
+        this.proxy.getLogger().debug("[{}] <-> Received login with authType: {} and payloadType: {}.", this.session.getSocketAddress(),
+                packet.getAuthPayload().getClass().getSimpleName(), packet.getAuthPayload().getAuthType());
+
+        // Chain validation, client data verification and key generation are too expensive to run on the network thread,
+        // which also forwards packets of every other player sharing it
+        ThreadPoolExecutor executor = this.proxy.getLoginExecutor();
+        NetworkMetrics metrics = this.proxy.getNetworkMetrics();
+        ProtocolVersion loginProtocol = protocol;
         try {
-            this.proxy.getLogger().debug("[{}] <-> Received login with authType: {} and payloadType: {}.", this.session.getSocketAddress(),
-                    packet.getAuthPayload().getClass().getSimpleName(), packet.getAuthPayload().getAuthType());
+            executor.execute(() -> this.verifyLogin(packet, loginProtocol, strictAuth));
+        } catch (RejectedExecutionException e) {
+            if (metrics != null) {
+                metrics.loginVerificationRejected();
+            }
+            this.proxy.getLogger().warning("[{}] <-> Login rejected: login verification queue is full", this.session.getSocketAddress());
+            this.session.disconnect("Server is busy, please try again later");
+            return PacketSignal.HANDLED;
+        }
+
+        if (metrics != null) {
+            metrics.loginVerificationQueued(executor.getQueue().size());
+        }
+        return PacketSignal.HANDLED;
+    }
+
+    /**
+     * Verifies the login chain and generates the encryption key pair on the login executor.
+     * The result is handed back to the event loop of the session, where the login data is built.
+     */
+    private void verifyLogin(LoginPacket packet, ProtocolVersion protocol, boolean strictAuth) {
+        if (!this.session.isConnected()) {
+            return;
+        }
 
+        HandshakeEntry handshakeEntry = null;
+        KeyPair keyPair = null;
+        Exception error = null;
+        try {
             handshakeEntry = HandshakeUtils.processHandshake(this.session, packet, protocol, strictAuth);
-            if (!handshakeEntry.isXboxAuthed() && strictAuth) {
-                this.onLoginFailed(handshakeEntry, null, "disconnectionScreen.notAuthenticated");
-                this.proxy.getLogger().info("[{}|{}] <-> Upstream has disconnected due to failed XBOX authentication!", this.session.getSocketAddress(), handshakeEntry.getDisplayName());
-                return PacketSignal.HANDLED;
+            if (handshakeEntry.isXboxAuthed() || !strictAuth) {
+                handshakeEntry.setProtocol(getClientProtocol(protocol, handshakeEntry));
+                keyPair = HandshakeEntry.createKeyPair(this.proxy);
+            }
+        } catch (Exception e) {
+            error = e;
+        }
+
+        HandshakeEntry entry = handshakeEntry;
+        KeyPair entryKeyPair = keyPair;
+        Exception cause = error;
+        this.session.getPeer().getChannel().eventLoop().execute(() -> this.onLoginVerified(protocol, entry, entryKeyPair, cause));
+    }
+
+    /**
+     * Resolves protocol versions which include protocol changes without the protocol version being increased.
+     */
+    private static ProtocolVersion getClientProtocol(ProtocolVersion protocol, HandshakeEntry handshakeEntry) {
+        if (!handshakeEntry.getClientData().has("GameVersion")) {
+            return protocol;
+        }
+
+        // BLAMEMOJANG: these versions includes protocol changes, but protocol version was not increased.
+        String gameVersion = handshakeEntry.getClientData().get("GameVersion").getAsString();
+        if (protocol.equals(ProtocolVersion.MINECRAFT_PE_1_19_60) && ProtocolVersion.MINECRAFT_PE_1_19_62.getMinecraftVersion().equals(gameVersion)) {
+            return ProtocolVersion.MINECRAFT_PE_1_19_62;
+        }
+        if (protocol.equals(ProtocolVersion.MINECRAFT_PE_1_26_40) && ProtocolVersion.MINECRAFT_PE_1_26_44.getMinecraftVersion().equals(gameVersion)) {
+            return ProtocolVersion.MINECRAFT_PE_1_26_44;
+        }
+        return protocol;
+    }
+
+    private void onLoginVerified(ProtocolVersion protocol, HandshakeEntry handshakeEntry, KeyPair keyPair, Exception error) {
+        if (!this.session.isConnected()) {
+            return;
+        }
+
+        try {
+            if (error != null) {
+                throw error;
             }
 
-            // BLAMEMOJANG: these versions includes protocol changes, but protocol version was not increased.
-            if (protocol.equals(ProtocolVersion.MINECRAFT_PE_1_19_60) && handshakeEntry.getClientData().has("GameVersion") &&
-                ProtocolVersion.MINECRAFT_PE_1_19_62.getMinecraftVersion().equals(handshakeEntry.getClientData().get("GameVersion").getAsString())) {
-                handshakeEntry.setProtocol(protocol = ProtocolVersion.MINECRAFT_PE_1_19_62);
-                this.session.getPeer().setProtocol(protocol);
+            if (keyPair == null) {
+                this.onLoginFailed(handshakeEntry, null, "disconnectionScreen.notAuthenticated");
+                this.proxy.getLogger().info("[{}|{}] <-> Upstream has disconnected due to failed XBOX authentication!", this.session.getSocketAddress(), handshakeEntry.getDisplayName());
+                return;
             }
 
-            if (protocol.equals(ProtocolVersion.MINECRAFT_PE_1_26_40) && handshakeEntry.getClientData().has("GameVersion") &&
-                ProtocolVersion.MINECRAFT_PE_1_26_44.getMinecraftVersion().equals(handshakeEntry.getClientData().get("GameVersion").getAsString())) {
-                handshakeEntry.setProtocol(protocol = ProtocolVersion.MINECRAFT_PE_1_26_44);
+            if (handshakeEntry.getProtocol() != protocol) {
+                protocol = handshakeEntry.getProtocol();
                 this.session.getPeer().setProtocol(protocol);
             }
 
             this.proxy.getLogger().info("[{}|{}] <-> Upstream has connected (protocol={} version={})", this.session.getSocketAddress(), handshakeEntry.getDisplayName(),
                     protocol.getProtocol(), protocol.getMinecraftVersion());
 
-            LoginData loginData = handshakeEntry.buildData(this.session, this.proxy);
+            LoginData loginData = handshakeEntry.buildData(this.session, this.proxy, keyPair);
 
             PlayerAuthenticatedEvent loginEvent = new PlayerAuthenticatedEvent(ProxiedPlayer.class, loginData, (InetSocketAddress) this.session.getSocketAddress());
             this.proxy.getEventManager().callEvent(loginEvent);
             if (loginEvent.isCancelled()) {
                 this.session.disconnect(loginEvent.getCancelReason());
-                return PacketSignal.HANDLED;
+                return;
             }
 
             this.player = loginEvent.getBaseClass().getConstructor(ProxyServer.class, BedrockServerSession.class, CompressionType.class, LoginData.class)
                     .newInstance(this.proxy, this.session, this.compression, loginData);
             if (!this.proxy.getPlayerManager().registerPlayer(this.player)) {
-                return PacketSignal.HANDLED;
+                return;
             }
 
             if (this.proxy.getConfiguration().isUpstreamEncryption()) {
@@ -238,7 +317,6 @@ public class LoginUpstreamHandler implements BedrockPacketHandler {
             this.onLoginFailed(handshakeEntry, e, "Login failed: " + e.getMessage());
             this.proxy.getLogger().error("[{}] Unable to complete login", this.session.getSocketAddress(), e);
         }
-        return PacketSignal.HANDLED;
     }
 
     @Override
@@ -21,13 +21,14 @@ import org.cloudburstmc.protocol.bedrock.data.definitions.BlockDefinition;
 import org.cloudburstmc.protocol.bedrock.data.entity.EntityDataMap;
 import org.cloudburstmc.protocol.bedrock.data.entity.EntityDataTypes;
 import org.cloudburstmc.protocol.bedrock.packet.*;
+import dev.waterdog.waterdogpe.network.protocol.handler.PacketInterest;
 import dev.waterdog.waterdogpe.network.protocol.rewrite.types.BlockPaletteRewrite;
 import dev.waterdog.waterdogpe.network.protocol.rewrite.types.RewriteData;
 import dev.waterdog.waterdogpe.player.ProxiedPlayer;
-import io.netty.buffer.AbstractByteBufAllocator;
 import io.netty.buffer.ByteBuf;
 import org.cloudburstmc.protocol.common.PacketSignal;
-import org.cloudburstmc.protocol.common.util.VarInts;
+
+import java.util.Collection;
 
 import static org.cloudburstmc.protocol.bedrock.data.LevelEvent.PARTICLE_CRACK_BLOCK;
 import static org.cloudburstmc.protocol.bedrock.data.LevelEvent.PARTICLE_DESTROY_BLOCK;
@@ -35,8 +36,6 @@ import static org.cloudburstmc.protocol.bedrock.data.ParticleType.TERRAIN;
 
 public class BlockMap implements BedrockPacketHandler {
 
-    protected static final int nV8Blocks = 16 * 16 * 16;
-
     protected final ProxiedPlayer player;
     protected final RewriteData rewrite;
 
@@ -53,6 +52,13 @@ public class BlockMap implements BedrockPacketHandler {
         return this.player.canRewrite() ? this.handlePacket(packet) : PacketSignal.UNHANDLED;
     }
 
+    /**
+     * @return packets which have to be decoded for this block map to rewrite them
+     */
+    public Collection<Class<? extends BedrockPacket>> getInterestedPackets() {
+        return PacketInterest.getHandledPackets(this.getClass());
+    }
+
     protected int translateId(int runtimeId) {
         return this.getPaletteRewrite().fromDownstream(runtimeId);
     }
@@ -60,61 +66,40 @@ public class BlockMap implements BedrockPacketHandler {
     @Override
     public PacketSignal handle(LevelChunkPacket packet) {
         ByteBuf from = packet.getData();
-        ByteBuf to = AbstractByteBufAllocator.DEFAULT.ioBuffer(from.readableBytes());
-
-        try {
-            boolean success = this.rewriteChunkData(from, to, packet.getSubChunksLength());
-            if (success) {
-                to.writeBytes(from); // Copy the rest
-                packet.setData(to.retain());
-            }
-            return success ? PacketSignal.HANDLED : PacketSignal.UNHANDLED;
-        } finally {
-            from.release();
-            to.release();
+        ByteBuf to = this.rewriteChunkData(from, packet.getSubChunksLength());
+        if (to == null) {
+            return PacketSignal.UNHANDLED;
         }
+
+        packet.setData(to);
+        from.release();
+        return PacketSignal.HANDLED;
     }
 
-    private boolean rewriteChunkData(ByteBuf from, ByteBuf to, int sections) {
-        for (int section = 0; section < sections; section++) {
-            int chunkVersion = from.readUnsignedByte();
-            to.writeByte(chunkVersion);
-
-            switch (chunkVersion) {
-                // Legacy block ids, no remap needed
-                // MiNet uses this format
-                case 0, 4, 139 -> {
-                    to.writeBytes(from);
-                    return true;
-                }
-                case 8 -> { // New form chunk, baked-in palette
-                    int storageCount = from.readUnsignedByte();
-                    to.writeByte(storageCount);
-                    for (int storage = 0; storage < storageCount; storage++) {
-                        int flags = from.readUnsignedByte();
-                        int bitsPerBlock = flags >> 1; // isRuntime = (flags & 0x1) != 0
-                        int blocksPerWord = Integer.SIZE / bitsPerBlock;
-                        int nWords = (nV8Blocks + blocksPerWord - 1) / blocksPerWord;
-
-                        to.writeByte(flags);
-                        to.writeBytes(from, nWords * Integer.BYTES);
-
-                        int nPaletteEntries = VarInts.readInt(from);
-                        VarInts.writeInt(to, nPaletteEntries);
-
-                        for (int i = 0; i < nPaletteEntries; i++) {
-                            int runtimeId = VarInts.readInt(from);
-                            VarInts.writeInt(to, this.translateId(runtimeId));
-                        }
-                    }
-                }
-                default -> { // Unsupported
-                    this.player.getLogger().warning("PEBlockRewrite: Unknown subchunk format " + chunkVersion);
-                    return false;
+    /**
+     * @return rewritten chunk data sharing the unchanged parts with the given buffer, or null if the data is not supported
+     */
+    private ByteBuf rewriteChunkData(ByteBuf from, int sections) {
+        int readerIndex = from.readerIndex();
+        ChunkDataRewriter rewriter = new ChunkDataRewriter(from, from.alloc(), this::translateId);
+        try {
+            for (int section = 0; section < sections; section++) {
+                ChunkDataRewriter.Result result = rewriter.rewriteSubChunk();
+                if (result == ChunkDataRewriter.Result.LEGACY) {
+                    break;
+                } else if (result == ChunkDataRewriter.Result.UNSUPPORTED) {
+                    this.player.getLogger().warning("PEBlockRewrite: Unknown subchunk format in section " + section);
+                    rewriter.release();
+                    return null;
                 }
             }
+            return rewriter.finish();
+        } catch (Throwable t) {
+            rewriter.release();
+            throw t;
+        } finally {
+            from.readerIndex(readerIndex);
         }
-        return true;
     }
 
     @Override
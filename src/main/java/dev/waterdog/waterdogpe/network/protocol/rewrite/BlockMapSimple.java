@@ -19,6 +19,9 @@ import org.cloudburstmc.protocol.bedrock.packet.*;
 import dev.waterdog.waterdogpe.player.ProxiedPlayer;
 import org.cloudburstmc.protocol.common.PacketSignal;
 
+import java.util.Collection;
+import java.util.Collections;
+
 public class BlockMapSimple extends BlockMap {
 
     /*
@@ -30,6 +33,11 @@ public class BlockMapSimple extends BlockMap {
         super(player);
     }
 
+    @Override
+    public Collection<Class<? extends BedrockPacket>> getInterestedPackets() {
+        return Collections.emptySet();
+    }
+
     @Override
     public PacketSignal handle(LevelChunkPacket packet) {
         return PacketSignal.UNHANDLED;
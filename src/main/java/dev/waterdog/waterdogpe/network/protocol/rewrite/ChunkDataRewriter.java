@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol.rewrite;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import org.cloudburstmc.protocol.common.util.VarInts;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Rewrites block runtime ids in serialized sub chunks without copying the block storage words.
+ * The result is a composite of retained slices of the original buffer, only the rewritten palettes
+ * are written into new buffers.
+ */
+public class ChunkDataRewriter {
+
+    public enum Result {
+        /**
+         * The sub chunk was read and its palettes were rewritten
+         */
+        REWRITTEN,
+        /**
+         * The sub chunk uses legacy block ids which do not need a rewrite, the length of it is unknown
+         * so the remaining data has to be taken over unchanged
+         */
+        LEGACY,
+        /**
+         * The sub chunk format is not supported, the data can not be rewritten
+         */
+        UNSUPPORTED
+    }
+
+    private static final int BLOCKS_PER_STORAGE = 16 * 16 * 16;
+
+    private final ByteBuf from;
+    private final ByteBufAllocator alloc;
+    private final IntUnaryOperator translator;
+    private final CompositeByteBuf to;
+    private int copyIndex;
+
+    /**
+     * @param from       serialized chunk data, the reader index has to point to the first sub chunk
+     * @param alloc      allocator used for rewritten palettes
+     * @param translator translates downstream runtime ids to upstream ones
+     */
+    public ChunkDataRewriter(ByteBuf from, ByteBufAllocator alloc, IntUnaryOperator translator) {
+        this.from = from;
+        this.alloc = alloc;
+        this.translator = translator;
+        this.to = alloc.compositeBuffer(Integer.MAX_VALUE);
+        this.copyIndex = from.readerIndex();
+    }
+
+    /**
+     * Reads the sub chunk at the current reader index and rewrites its palettes.
+     */
+    public Result rewriteSubChunk() {
+        int version = this.from.readUnsignedByte();
+        switch (version) {
+            // Legacy block ids, no remap needed
+            // MiNet uses this format
+            case 0, 4, 139 -> {
+                return Result.LEGACY;
+            }
+            case 8, 9 -> { // Baked-in palettes, version 9 adds the y index of the sub chunk
+                int storageCount = this.from.readUnsignedByte();
+                if (version == 9) {
+                    this.from.skipBytes(1);
+                }
+                for (int storage = 0; storage < storageCount; storage++) {
+                    if (!this.rewriteStorage()) {
+                        return Result.UNSUPPORTED;
+                    }
+                }
+                return Result.REWRITTEN;
+            }
+            default -> {
+                return Result.UNSUPPORTED;
+            }
+        }
+    }
+
+    private boolean rewriteStorage() {
+        int flags = this.from.readUnsignedByte();
+        int bitsPerBlock = flags >> 1;
+        if ((flags & 0x1) == 0 || bitsPerBlock > 16) {
+            return false; // Persistent palettes hold NBT instead of runtime ids
+        }
+
+        if (bitsPerBlock == 0) { // Whole storage is one block, palette size is omitted
+            int start = this.from.readerIndex();
+            ByteBuf palette = this.alloc.ioBuffer(5);
+            this.writeTranslated(palette, 1);
+            this.replace(start, palette);
+            return true;
+        }
+
+        int blocksPerWord = Integer.SIZE / bitsPerBlock;
+        int nWords = (BLOCKS_PER_STORAGE + blocksPerWord - 1) / blocksPerWord;
+        this.from.skipBytes(nWords * Integer.BYTES);
+
+        int nPaletteEntries = VarInts.readInt(this.from);
+        int start = this.from.readerIndex();
+        ByteBuf palette = this.alloc.ioBuffer(nPaletteEntries * 3);
+        this.writeTranslated(palette, nPaletteEntries);
+        this.replace(start, palette);
+        return true;
+    }
+
+    private void writeTranslated(ByteBuf palette, int entries) {
+        try {
+            for (int i = 0; i < entries; i++) {
+                VarInts.writeInt(palette, this.translator.applyAsInt(VarInts.readInt(this.from)));
+            }
+        } catch (Throwable t) {
+            palette.release();
+            throw t;
+        }
+    }
+
+    /**
+     * Takes over the original data up to the given index and replaces the data from there
+     * up to the current reader index with the given buffer.
+     */
+    private void replace(int startIndex, ByteBuf replacement) {
+        if (startIndex > this.copyIndex) {
+            this.to.addComponent(true, this.from.retainedSlice(this.copyIndex, startIndex - this.copyIndex));
+        }
+        this.to.addComponent(true, replacement);
+        this.copyIndex = this.from.readerIndex();
+    }
+
+    /**
+     * Takes over the remaining original data, including everything following the sub chunks.
+     *
+     * @return the rewritten data, the caller is responsible for releasing it
+     */
+    public ByteBuf finish() {
+        int end = this.from.writerIndex();
+        if (end > this.copyIndex) {
+            this.to.addComponent(true, this.from.retainedSlice(this.copyIndex, end - this.copyIndex));
+            this.copyIndex = end;
+        }
+        return this.to;
+    }
+
+    /**
+     * Releases the data rewritten so far, used when the rewrite is abandoned
+     */
+    public void release() {
+        this.to.release();
+    }
+}
@@ -23,6 +23,7 @@ import org.cloudburstmc.protocol.bedrock.data.entity.EntityDataMap;
 import org.cloudburstmc.protocol.bedrock.data.entity.EntityDataType;
 import org.cloudburstmc.protocol.bedrock.data.entity.EntityDataTypes;
 import org.cloudburstmc.protocol.bedrock.data.entity.EntityLinkData;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
 import org.cloudburstmc.protocol.bedrock.packet.*;
 import dev.waterdog.waterdogpe.network.protocol.rewrite.types.RewriteData;
 import dev.waterdog.waterdogpe.network.protocol.user.PlayerRewriteUtils;
@@ -53,6 +54,7 @@ public class EntityMap implements BedrockPacketHandler {
 
     private final ProxiedPlayer player;
     private final RewriteData data;
+    private RawEntityIdRewriter rawRewriter;
 
     public EntityMap(ProxiedPlayer player) {
         this.player = player;
@@ -63,6 +65,22 @@ public class EntityMap implements BedrockPacketHandler {
         return this.player.canRewrite() ? packet.handle(this) : PacketSignal.UNHANDLED;
     }
 
+    /**
+     * Rewrites entity ids of a packet which was not decoded, if it is one of {@link RawEntityIdRewriter#PACKETS}.
+     *
+     * @return true if the packet buffer was rewritten
+     */
+    public boolean doRawRewrite(BedrockPacketWrapper wrapper) {
+        if (!this.player.canRewrite()) {
+            return false;
+        }
+
+        if (this.rawRewriter == null) {
+            this.rawRewriter = new RawEntityIdRewriter(this.player.getProtocol().getCodec());
+        }
+        return this.rawRewriter.isSupported(wrapper.getPacketId()) && this.rawRewriter.rewrite(wrapper, this.data);
+    }
+
     @Override
     public PacketSignal handle(MoveEntityAbsolutePacket packet) {
         return data.rewriteEntityId(packet.getRuntimeEntityId(), packet::setRuntimeEntityId);
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol.rewrite;
+
+import dev.waterdog.waterdogpe.network.protocol.rewrite.types.RewriteData;
+import dev.waterdog.waterdogpe.network.protocol.user.PlayerRewriteUtils;
+import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockPacketDefinition;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
+import org.cloudburstmc.protocol.bedrock.packet.*;
+import org.cloudburstmc.protocol.common.util.VarInts;
+
+import java.util.Set;
+
+/**
+ * Rewrites entity ids of high-volume movement packets directly on the encoded packet buffer.
+ * All of these packets start with the runtime entity id written as unsigned VarLong right after the packet header,
+ * so the id can be checked without decoding the packet, and replaced without encoding it again.
+ */
+public class RawEntityIdRewriter {
+    public static final Set<Class<? extends BedrockPacket>> PACKETS = Set.of(
+            MoveEntityAbsolutePacket.class,
+            MoveEntityDeltaPacket.class,
+            SetEntityMotionPacket.class,
+            MovePlayerPacket.class
+    );
+
+    /**
+     * MovePlayerPacket writes position, rotation, mode and on ground flag between the runtime and riding entity id.
+     */
+    private static final int MOVE_PLAYER_RIDING_ID_OFFSET = 3 * Float.BYTES + 3 * Float.BYTES + 1 + 1;
+
+    private final IntSet packetIds = new IntOpenHashSet();
+    private final int movePlayerId;
+
+    public RawEntityIdRewriter(BedrockCodec codec) {
+        for (Class<? extends BedrockPacket> packet : PACKETS) {
+            BedrockPacketDefinition<? extends BedrockPacket> definition = codec.getPacketDefinition(packet);
+            if (definition != null) {
+                this.packetIds.add(definition.getId());
+            }
+        }
+        BedrockPacketDefinition<MovePlayerPacket> definition = codec.getPacketDefinition(MovePlayerPacket.class);
+        this.movePlayerId = definition == null ? -1 : definition.getId();
+    }
+
+    public boolean isSupported(int packetId) {
+        return this.packetIds.contains(packetId);
+    }
+
+    /**
+     * Rewrites entity ids of the given packet, which has to be one of {@link #PACKETS}.
+     * The packet buffer is replaced only if any of the ids belongs to the player.
+     *
+     * @return true if the packet buffer was rewritten
+     */
+    public boolean rewrite(BedrockPacketWrapper wrapper, RewriteData data) {
+        ByteBuf buffer = wrapper.getPacketBuffer();
+        ByteBuf msg = buffer.duplicate();
+        int start = msg.readerIndex();
+        msg.skipBytes(wrapper.getHeaderLength());
+
+        int runtimeIdIndex = msg.readerIndex();
+        long runtimeId = VarInts.readUnsignedLong(msg);
+        int runtimeIdEnd = msg.readerIndex();
+        long rewrittenRuntimeId = PlayerRewriteUtils.rewriteId(runtimeId, data.getEntityId(), data.getOriginalEntityId());
+
+        int ridingIdIndex = -1;
+        int ridingIdEnd = -1;
+        long ridingId = 0;
+        long rewrittenRidingId = 0;
+        if (wrapper.getPacketId() == this.movePlayerId) {
+            msg.skipBytes(MOVE_PLAYER_RIDING_ID_OFFSET);
+            ridingIdIndex = msg.readerIndex();
+            ridingId = VarInts.readUnsignedLong(msg);
+            ridingIdEnd = msg.readerIndex();
+            rewrittenRidingId = PlayerRewriteUtils.rewriteId(ridingId, data.getEntityId(), data.getOriginalEntityId());
+        }
+
+        if (runtimeId == rewrittenRuntimeId && ridingId == rewrittenRidingId) {
+            return false;
+        }
+
+        int end = buffer.writerIndex();
+        ByteBuf rewritten = buffer.alloc().ioBuffer(buffer.readableBytes() + 2 * 10);
+        rewritten.writeBytes(buffer, start, runtimeIdIndex - start);
+        VarInts.writeUnsignedLong(rewritten, rewrittenRuntimeId);
+        if (ridingIdIndex < 0) {
+            rewritten.writeBytes(buffer, runtimeIdEnd, end - runtimeIdEnd);
+        } else {
+            rewritten.writeBytes(buffer, runtimeIdEnd, ridingIdIndex - runtimeIdEnd);
+            VarInts.writeUnsignedLong(rewritten, rewrittenRidingId);
+            rewritten.writeBytes(buffer, ridingIdEnd, end - ridingIdEnd);
+        }
+
+        buffer.release();
+        wrapper.setPacketBuffer(rewritten);
+        return true;
+    }
+}
@@ -16,8 +16,6 @@
 package dev.waterdog.waterdogpe.network.protocol.rewrite.types;
 
 import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ShortLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ShortMap;
 import it.unimi.dsi.fastutil.shorts.Short2ObjectLinkedOpenHashMap;
@@ -26,15 +24,18 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.cloudburstmc.nbt.NbtList;
 import org.cloudburstmc.nbt.NbtMap;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Class used to map Block Palettes, as some server-softwares are randomizing them.
  * Prevents glitches with blocks.
  */
 public class BlockPalette {
 
-    private static final Int2ObjectMap<BlockPalette> paletteCache = new Int2ObjectOpenHashMap<>();
     private final Object2ShortMap<BlockPair> entryToId = new Object2ShortLinkedOpenHashMap<>();
     private final Short2ObjectMap<BlockPair> idToEntry = new Short2ObjectLinkedOpenHashMap<>();
+    private final Map<BlockPalette, BlockPaletteRewrite> rewrites = new ConcurrentHashMap<>();
 
     public BlockPalette(NbtList<NbtMap> paletteData, ProtocolVersion protocol) {
         short id = 0;
@@ -44,22 +45,18 @@ public class BlockPalette {
         }
     }
 
+    /**
+     * @see BlockPaletteRegistry#getPalette(NbtList, ProtocolVersion)
+     */
     public static BlockPalette getPalette(NbtList<NbtMap> paletteData, ProtocolVersion protocol) {
-        int hashId = paletteData.hashCode();
-        if (paletteCache.containsKey(hashId)) {
-            return paletteCache.get(hashId);
-        }
-
-        BlockPalette palette = new BlockPalette(paletteData, protocol);
-        paletteCache.put(hashId, palette);
-        return palette;
+        return BlockPaletteRegistry.getPalette(paletteData, protocol);
     }
 
     public BlockPaletteRewrite createRewrite(BlockPalette upstreamPalette) {
         if (BlockPalette.this == upstreamPalette) {
             return BlockPaletteRewrite.BLOCK_EQUAL;
         }
-        return new BlockPaletteRewrite(upstreamPalette, this);
+        return this.rewrites.computeIfAbsent(upstreamPalette, palette -> new BlockPaletteRewrite(palette, this));
     }
 
     private void addEntry(short id, String name, Object data) {
@@ -76,6 +73,10 @@ public class BlockPalette {
         return this.idToEntry.get((short) id);
     }
 
+    public int size() {
+        return this.idToEntry.size();
+    }
+
     public static final class BlockPair extends Pair<String, Object> {
         private final String key;
         private final Object data;
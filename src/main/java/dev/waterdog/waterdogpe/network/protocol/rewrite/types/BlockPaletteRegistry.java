@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol.rewrite.types;
+
+import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
+import org.cloudburstmc.nbt.NbtList;
+import org.cloudburstmc.nbt.NbtMap;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of block palettes received from downstream servers, keyed by the palette content.
+ * Lookups compare the whole palette, so palettes with colliding hash codes are never mixed up.
+ * Palettes are held weakly and are dropped once no player references them anymore.
+ */
+public class BlockPaletteRegistry {
+
+    private static final Map<NbtList<NbtMap>, PaletteReference> palettes = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<BlockPalette> collectedPalettes = new ReferenceQueue<>();
+
+    /**
+     * Returns the palette built from the given palette data, building it if it is not registered yet.
+     * Players joining with the same palette at the same time wait for a single palette to be built.
+     */
+    public static BlockPalette getPalette(NbtList<NbtMap> paletteData, ProtocolVersion protocol) {
+        expungeCollected();
+
+        PaletteReference reference = palettes.get(paletteData);
+        BlockPalette palette = reference == null ? null : reference.get();
+        if (palette != null) {
+            return palette;
+        }
+
+        BlockPalette[] created = new BlockPalette[1];
+        palettes.compute(paletteData, (key, existing) -> {
+            BlockPalette existingPalette = existing == null ? null : existing.get();
+            if (existingPalette != null) {
+                created[0] = existingPalette;
+                return existing;
+            }
+            created[0] = new BlockPalette(key, protocol);
+            return new PaletteReference(key, created[0], collectedPalettes);
+        });
+        return created[0];
+    }
+
+    /**
+     * @return amount of palettes currently in use
+     */
+    public static int getPaletteCount() {
+        expungeCollected();
+        return palettes.size();
+    }
+
+    /**
+     * @return total amount of block entries held by palettes currently in use
+     */
+    public static long getPaletteEntries() {
+        long entries = 0;
+        for (PaletteReference reference : palettes.values()) {
+            BlockPalette palette = reference.get();
+            if (palette != null) {
+                entries += palette.size();
+            }
+        }
+        return entries;
+    }
+
+    private static void expungeCollected() {
+        PaletteReference reference;
+        while ((reference = (PaletteReference) collectedPalettes.poll()) != null) {
+            palettes.remove(reference.key, reference);
+        }
+    }
+
+    private static class PaletteReference extends WeakReference<BlockPalette> {
+        private final NbtList<NbtMap> key;
+
+        private PaletteReference(NbtList<NbtMap> key, BlockPalette palette, ReferenceQueue<BlockPalette> queue) {
+            super(palette, queue);
+            this.key = key;
+        }
+    }
+}
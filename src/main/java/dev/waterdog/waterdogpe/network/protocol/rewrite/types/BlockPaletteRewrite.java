@@ -15,24 +15,46 @@
 
 package dev.waterdog.waterdogpe.network.protocol.rewrite.types;
 
+/**
+ * Translates block runtime ids of a downstream palette to the upstream palette.
+ * The translation is precomputed into a table indexed by the downstream runtime id,
+ * rewrites are shared by all players connected with the same pair of palettes.
+ */
 public class BlockPaletteRewrite {
 
-    public static final BlockPaletteRewrite BLOCK_EQUAL = new BlockPaletteRewrite(null, null) {
+    public static final BlockPaletteRewrite BLOCK_EQUAL = new BlockPaletteRewrite(new int[0]) {
         @Override
         public int fromDownstream(int runtimeId) {
             return runtimeId;
         }
     };
 
-    private final BlockPalette upstreamPalette;
-    private final BlockPalette downstreamPalette;
+    /**
+     * Upstream runtime ids indexed by the downstream runtime id
+     */
+    private final int[] table;
+
+    private BlockPaletteRewrite(int[] table) {
+        this.table = table;
+    }
 
     public BlockPaletteRewrite(BlockPalette upstreamPalette, BlockPalette downstreamPalette) {
-        this.upstreamPalette = upstreamPalette;
-        this.downstreamPalette = downstreamPalette;
+        this(createTable(upstreamPalette, downstreamPalette));
+    }
+
+    private static int[] createTable(BlockPalette upstreamPalette, BlockPalette downstreamPalette) {
+        int[] table = new int[downstreamPalette.size()];
+        for (int runtimeId = 0; runtimeId < table.length; runtimeId++) {
+            table[runtimeId] = upstreamPalette.getId(downstreamPalette.getEntry(runtimeId));
+        }
+        return table;
     }
 
+    /**
+     * @return upstream runtime id of the block, or 0 if the block is not known to either palette
+     */
     public int fromDownstream(int runtimeId) {
-        return this.upstreamPalette.getId(this.downstreamPalette.getEntry(runtimeId));
+        int[] table = this.table;
+        return runtimeId >= 0 && runtimeId < table.length ? table[runtimeId] : 0;
     }
 }
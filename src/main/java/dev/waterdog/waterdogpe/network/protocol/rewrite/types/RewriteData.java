@@ -51,6 +51,11 @@ public class RewriteData {
 
     @Getter
     private BlockPalette blockPalette;
+    /**
+     * Block palette of the current downstream server, kept so the palette and its rewrites stay registered while in use
+     */
+    @Getter
+    private BlockPalette downstreamBlockPalette;
     @Getter
     private BlockPaletteRewrite blockPaletteRewrite;
     @Getter
@@ -24,6 +24,7 @@ import lombok.Getter;
 import lombok.Setter;
 import org.cloudburstmc.protocol.bedrock.util.EncryptionUtils;
 
+import java.security.KeyPair;
 import java.security.interfaces.ECPublicKey;
 import java.util.UUID;
 
@@ -54,9 +55,25 @@ public class HandshakeEntry {
     }
 
     public LoginData buildData(BedrockServerSession session, ProxyServer proxy) {
+        return this.buildData(session, proxy, createKeyPair(proxy));
+    }
+
+    /**
+     * Takes an encryption key pair from the pool of the proxy, or generates a new one if the pool is disabled.
+     */
+    public static KeyPair createKeyPair(ProxyServer proxy) {
+        KeyPairPool keyPairPool = proxy.getKeyPairPool();
+        return keyPairPool == null ? EncryptionUtils.createKeyPair() : keyPairPool.take();
+    }
+
+    /**
+     * Builds the login data using the given encryption key pair.
+     * Calls {@link PreClientDataSetEvent}, so it should run on the event loop of the session.
+     */
+    public LoginData buildData(BedrockServerSession session, ProxyServer proxy, KeyPair keyPair) {
         // This is first event which exposes new player connecting to proxy.
         // The purpose is to change player's client data or set encryption keypair before joining first downstream.
-        PreClientDataSetEvent event = new PreClientDataSetEvent(this.clientData, this.xuid, this.uuid, this.displayName, EncryptionUtils.createKeyPair(), session);
+        PreClientDataSetEvent event = new PreClientDataSetEvent(this.clientData, this.xuid, this.uuid, this.displayName, keyPair, session);
         proxy.getEventManager().callEvent(event);
 
         LoginData.LoginDataBuilder builder = LoginData.builder();
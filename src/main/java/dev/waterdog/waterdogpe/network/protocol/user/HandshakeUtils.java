@@ -35,6 +35,7 @@ import org.cloudburstmc.protocol.bedrock.util.ChainValidationResult;
 import org.cloudburstmc.protocol.bedrock.util.EncryptionUtils;
 
 import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.security.*;
@@ -181,6 +182,22 @@ public class HandshakeUtils {
         return clientData;
     }
 
+    /**
+     * Derives the encryption key of a handshake started by a downstream server.
+     * The ECDH agreement depends only on the key pair of the player and the key of the server, which rarely changes,
+     * so the agreement is cached per player and only the salt of the handshake is hashed.
+     */
+    public static SecretKey createDownstreamSecretKey(LoginData loginData, ServerToClientHandshakePacket packet) throws Exception {
+        SignedJWT saltJwt = SignedJWT.parse(packet.getJwt());
+        String serverKey = saltJwt.getHeader().getX509CertURL().toASCIIString();
+        byte[] salt = Base64.getDecoder().decode(saltJwt.getJWTClaimsSet().getStringClaim("salt"));
+
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(salt);
+        digest.update(loginData.getSharedSecret(serverKey));
+        return new SecretKeySpec(digest.digest(), "AES");
+    }
+
     public static void processEncryption(BedrockSession session, PublicKey key) throws Exception {
         byte[] token = EncryptionUtils.generateRandomToken();
         SecretKey encryptionKey = EncryptionUtils.getSecretKey(privateKeyPair.getPrivate(), key, token);
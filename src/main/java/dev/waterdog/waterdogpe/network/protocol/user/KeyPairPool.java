@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol.user;
+
+import org.cloudburstmc.protocol.common.util.Preconditions;
+import org.cloudburstmc.protocol.bedrock.util.EncryptionUtils;
+
+import java.security.KeyPair;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Pool of pre-generated key pairs used to sign the login of players joining downstream servers.
+ * Generating EC key pairs is one of the most expensive parts of a login, so the pool is refilled
+ * in the background once the number of ready key pairs drops below the low-water mark.
+ * If the pool runs dry, key pairs are generated on the calling thread.
+ */
+public class KeyPairPool {
+
+    private final ArrayBlockingQueue<KeyPair> keyPairs;
+    private final int lowWaterMark;
+    private final Executor refillExecutor;
+    private final Supplier<KeyPair> generator;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    private final LongAdder taken = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public KeyPairPool(int capacity, int lowWaterMark, Executor refillExecutor) {
+        this(capacity, lowWaterMark, refillExecutor, EncryptionUtils::createKeyPair);
+    }
+
+    public KeyPairPool(int capacity, int lowWaterMark, Executor refillExecutor, Supplier<KeyPair> generator) {
+        Preconditions.checkArgument(capacity > 0, "Capacity must be positive");
+        this.keyPairs = new ArrayBlockingQueue<>(capacity);
+        this.lowWaterMark = Math.min(lowWaterMark, capacity);
+        this.refillExecutor = refillExecutor;
+        this.generator = generator;
+        this.scheduleRefill();
+    }
+
+    /**
+     * @return a key pair which was not handed out before
+     */
+    public KeyPair take() {
+        this.taken.increment();
+        KeyPair keyPair = this.keyPairs.poll();
+        if (this.keyPairs.size() < this.lowWaterMark) {
+            this.scheduleRefill();
+        }
+
+        if (keyPair == null) {
+            this.misses.increment();
+            keyPair = this.generator.get();
+        }
+        return keyPair;
+    }
+
+    private void scheduleRefill() {
+        if (!this.refilling.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            this.refillExecutor.execute(this::refill);
+        } catch (RejectedExecutionException e) {
+            this.refilling.set(false); // shutting down
+        }
+    }
+
+    private void refill() {
+        try {
+            while (this.keyPairs.remainingCapacity() > 0) {
+                this.keyPairs.offer(this.generator.get());
+            }
+        } finally {
+            this.refilling.set(false);
+        }
+    }
+
+    /**
+     * @return number of key pairs ready to be taken
+     */
+    public int getAvailable() {
+        return this.keyPairs.size();
+    }
+
+    /**
+     * @return number of key pairs taken from the pool, including misses
+     */
+    public long getTaken() {
+        return this.taken.sum();
+    }
+
+    /**
+     * @return number of key pairs which had to be generated on the calling thread because the pool was empty
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+}
@@ -17,22 +17,35 @@ package dev.waterdog.waterdogpe.network.protocol.user;
 
 import com.google.gson.JsonObject;
 import com.nimbusds.jwt.SignedJWT;
+import dev.waterdog.waterdogpe.network.connection.codec.packet.BedrockPacketCodec;
 import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
 import org.cloudburstmc.protocol.bedrock.data.auth.AuthType;
 import org.cloudburstmc.protocol.bedrock.data.auth.CertificateChainPayload;
 import org.cloudburstmc.protocol.bedrock.data.auth.TokenPayload;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
 import org.cloudburstmc.protocol.bedrock.packet.ClientCacheStatusPacket;
 import org.cloudburstmc.protocol.bedrock.packet.LoginPacket;
 import org.cloudburstmc.protocol.bedrock.packet.RequestChunkRadiusPacket;
+import org.cloudburstmc.protocol.bedrock.util.EncryptionUtils;
 
+import javax.crypto.KeyAgreement;
 import java.net.SocketAddress;
+import java.security.GeneralSecurityException;
 import java.security.KeyPair;
 import java.util.Collections;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Holds relevant information passed to the proxy on the first connection (initial) in the LoginPacket.
@@ -41,6 +54,11 @@ import java.util.UUID;
 @Builder
 @Getter
 public class LoginData {
+    /**
+     * Self-signed auth payloads expire 24 hours after being issued.
+     */
+    private static final long AUTH_PAYLOAD_RESIGN_INTERVAL = TimeUnit.HOURS.toMillis(12);
+    private static final int MAX_SHARED_SECRETS = 16;
 
     private final String displayName;
     private final UUID uuid;
@@ -71,34 +89,133 @@ public class LoginData {
 
     private final boolean shouldSendCertificateChain;
 
+    @Getter(AccessLevel.NONE)
+    private String signedClientData;
+    @Getter(AccessLevel.NONE)
+    private String signedClientDataSource;
+    @Getter(AccessLevel.NONE)
+    private String signedAuthPayload;
+    @Getter(AccessLevel.NONE)
+    private long signedAuthPayloadTime;
+
+    @Getter(AccessLevel.NONE)
+    private Map<String, byte[]> sharedSecrets;
+
+    @Getter(AccessLevel.NONE)
+    private byte[] encodedLoginPacket;
+    @Getter(AccessLevel.NONE)
+    private BedrockCodec encodedLoginCodec;
+    @Getter(AccessLevel.NONE)
+    private Class<? extends BedrockPacketCodec> encodedLoginHeaderCodec;
+
     /**
      * Used to construct new login packet using this.clientData and this.extraData signed by this.keyPair.
      * This method should be called everytime client data is changed. Otherwise player will join to downstream using old data.
      *
      * @return new LoginPacket.
      */
-    public LoginPacket rebuildLoginPacket() {
+    public synchronized LoginPacket rebuildLoginPacket() {
         LoginPacket loginPacket = new LoginPacket();
-        SignedJWT signedClientData = HandshakeUtils.encodeJWT(this.keyPair, this.clientData);
-        loginPacket.setClientJwt(signedClientData.serialize());
+        loginPacket.setClientJwt(this.getSignedClientData());
         loginPacket.setProtocolVersion(this.protocol.getProtocol());
         if (shouldSendCertificateChain) {
-            JsonObject extraData = HandshakeUtils.createChainExtraData(displayName, xuid, uuid);
-            SignedJWT signedPayload = HandshakeUtils.createClientDataChain(this.keyPair, extraData);
-            loginPacket.setAuthPayload(new CertificateChainPayload(Collections.singletonList(signedPayload.serialize()), AuthType.SELF_SIGNED));
+            loginPacket.setAuthPayload(new CertificateChainPayload(Collections.singletonList(this.getSignedAuthPayload()), AuthType.SELF_SIGNED));
         } else {
-            SignedJWT signedPayload = HandshakeUtils.createClientDataToken(this.keyPair, displayName, xuid, uuid, minecraftId);
-            loginPacket.setAuthPayload(new TokenPayload(signedPayload.serialize(), AuthType.SELF_SIGNED));
+            loginPacket.setAuthPayload(new TokenPayload(this.getSignedAuthPayload(), AuthType.SELF_SIGNED));
         }
         this.loginPacket = loginPacket;
+        this.encodedLoginPacket = null;
         return loginPacket;
     }
 
-    public LoginPacket getLoginPacket() {
+    /**
+     * Client data can be changed by plugins, so it is signed again only if its content differs from the last signed version.
+     */
+    private synchronized String getSignedClientData() {
+        String clientData = this.clientData.toString();
+        if (this.signedClientData == null || !clientData.equals(this.signedClientDataSource)) {
+            this.signedClientData = HandshakeUtils.encodeJWT(this.keyPair, this.clientData).serialize();
+            this.signedClientDataSource = clientData;
+        }
+        return this.signedClientData;
+    }
+
+    /**
+     * Claims of the self-signed chain or token never change, so it is signed again only once it gets close to its expiry.
+     */
+    private synchronized String getSignedAuthPayload() {
+        long now = System.currentTimeMillis();
+        if (this.signedAuthPayload == null || now - this.signedAuthPayloadTime > AUTH_PAYLOAD_RESIGN_INTERVAL) {
+            SignedJWT signedPayload;
+            if (shouldSendCertificateChain) {
+                JsonObject extraData = HandshakeUtils.createChainExtraData(displayName, xuid, uuid);
+                signedPayload = HandshakeUtils.createClientDataChain(this.keyPair, extraData);
+            } else {
+                signedPayload = HandshakeUtils.createClientDataToken(this.keyPair, displayName, xuid, uuid, minecraftId);
+            }
+            this.signedAuthPayload = signedPayload.serialize();
+            this.signedAuthPayloadTime = now;
+        }
+        return this.signedAuthPayload;
+    }
+
+    public synchronized LoginPacket getLoginPacket() {
         if (this.loginPacket == null) {
             this.rebuildLoginPacket();
         }
         return this.loginPacket;
     }
 
+    /**
+     * Returns the ECDH agreement of the key pair of this player and the given downstream server key.
+     * Agreements are cached, so transfers to a server which was already joined skip the key agreement.
+     *
+     * @param serverKey base64 encoded public key of the downstream server
+     */
+    public synchronized byte[] getSharedSecret(String serverKey) throws GeneralSecurityException {
+        if (this.sharedSecrets == null) {
+            this.sharedSecrets = new Object2ObjectOpenHashMap<>();
+        }
+
+        byte[] secret = this.sharedSecrets.get(serverKey);
+        if (secret == null) {
+            KeyAgreement agreement = KeyAgreement.getInstance("ECDH");
+            agreement.init(this.keyPair.getPrivate());
+            agreement.doPhase(EncryptionUtils.parseKey(serverKey), true);
+            secret = agreement.generateSecret();
+
+            if (this.sharedSecrets.size() >= MAX_SHARED_SECRETS) {
+                this.sharedSecrets.clear();
+            }
+            this.sharedSecrets.put(serverKey, secret);
+        }
+        return secret;
+    }
+
+    /**
+     * Creates a pre-encoded wrapper of the login packet, which is written by the packet codec without encoding it again.
+     * The encoded packet is cached until the login packet is rebuilt, so players switching servers often
+     * do not encode the same login packet over and over.
+     *
+     * @param packetCodec the packet codec of the downstream connection
+     * @return new wrapper holding the login packet and its encoded buffer
+     */
+    public synchronized BedrockPacketWrapper createEncodedLoginPacket(BedrockPacketCodec packetCodec) {
+        LoginPacket loginPacket = this.getLoginPacket();
+        if (this.encodedLoginPacket == null || this.encodedLoginCodec != packetCodec.getCodec() ||
+                this.encodedLoginHeaderCodec != packetCodec.getClass()) {
+            ByteBuf buf = Unpooled.buffer();
+            BedrockPacketWrapper wrapper = BedrockPacketWrapper.create(0, 0, 0, loginPacket, null);
+            try {
+                packetCodec.encodePacket(buf, wrapper);
+                this.encodedLoginPacket = ByteBufUtil.getBytes(buf);
+                this.encodedLoginCodec = packetCodec.getCodec();
+                this.encodedLoginHeaderCodec = packetCodec.getClass();
+            } finally {
+                wrapper.release();
+                buf.release();
+            }
+        }
+        return BedrockPacketWrapper.create(packetCodec.getPacketId(loginPacket), 0, 0, loginPacket, Unpooled.wrappedBuffer(this.encodedLoginPacket));
+    }
 }
@@ -17,6 +17,7 @@ package dev.waterdog.waterdogpe.network.protocol.user;
 
 import dev.waterdog.waterdogpe.network.connection.ProxiedConnection;
 import dev.waterdog.waterdogpe.network.connection.codec.batch.BatchFlags;
+import dev.waterdog.waterdogpe.network.protocol.ChunkBlobStore;
 import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -423,13 +424,21 @@ public class PlayerRewriteUtils {
     }
 
     public static void injectChunkCacheBlobs(ProxiedConnection session, LongSet blobs) {
+        injectChunkCacheBlobs(session, blobs, null);
+    }
+
+    /**
+     * Answers blobs the client is still waiting for, using stored blobs where available and empty chunks otherwise.
+     */
+    public static void injectChunkCacheBlobs(ProxiedConnection session, LongSet blobs, ChunkBlobStore blobStore) {
         if (session == null || !session.isConnected()){
             return;
         }
 
         ClientCacheMissResponsePacket packet = new ClientCacheMissResponsePacket();
         for (long blob : blobs) {
-            packet.getBlobs().put(blob, emptyChunkRaw);
+            ByteBuf stored = blobStore == null ? null : blobStore.get(blob);
+            packet.getBlobs().put(blob, stored == null ? emptyChunkRaw : stored);
         }
         session.sendPacket(packet);
     }
@@ -16,6 +16,7 @@
 package dev.waterdog.waterdogpe.network.serverinfo;
 
 import dev.waterdog.waterdogpe.ProxyServer;
+import dev.waterdog.waterdogpe.network.DatagramBatching;
 import dev.waterdog.waterdogpe.network.EventLoops;
 import dev.waterdog.waterdogpe.network.RakNetInterface;
 import dev.waterdog.waterdogpe.network.connection.client.ClientConnection;
@@ -28,6 +29,7 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.*;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.Promise;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import org.cloudburstmc.netty.channel.raknet.RakChannelFactory;
 import org.cloudburstmc.netty.channel.raknet.RakPing;
 import org.cloudburstmc.netty.channel.raknet.config.RakChannelOption;
@@ -39,12 +41,16 @@ import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class BedrockServerInfo extends ServerInfo {
 
     private static volatile Boolean loopbackBindSupported;
+    private static volatile BindAddresses bindAddresses;
+    private static final AtomicInteger bindAddressIndex = new AtomicInteger();
 
     public BedrockServerInfo(String serverName, InetSocketAddress address, InetSocketAddress publicAddress) {
         super(serverName, address, publicAddress);
@@ -61,7 +67,7 @@ public class BedrockServerInfo extends ServerInfo {
         NetworkSettings networkSettings = player.getProxy().getNetworkSettings();
 
         // Just pick EventLoop here, and we can use it for our promise too
-        EventLoop eventLoop = player.getProxy().getWorkerEventLoopGroup().next();
+        EventLoop eventLoop = getDownstreamEventLoop(player, networkSettings);
         Promise<ClientConnection> promise = eventLoop.newPromise();
         InetSocketAddress remoteAddress = this.getResolvedAddress();
         Bootstrap bootstrap = new Bootstrap()
@@ -79,16 +85,39 @@ public class BedrockServerInfo extends ServerInfo {
                 && remoteAddress.getAddress().isLoopbackAddress()
                 && isLoopbackBindSupported()) {
             bootstrap.localAddress(randomLoopbackAddress());
+        } else if (!remoteAddress.getAddress().isLoopbackAddress()) {
+            InetSocketAddress bindAddress = nextBindAddress(networkSettings, remoteAddress.getAddress());
+            if (bindAddress != null) {
+                bootstrap.localAddress(bindAddress);
+            }
         }
         bootstrap.connect(remoteAddress).addListener((ChannelFuture future) -> {
             if (!future.isSuccess()) {
                 promise.tryFailure(future.cause());
                 future.channel().close();
+            } else {
+                DatagramBatching.configure(future.channel(), networkSettings.getMaximumDownstreamMtu(), networkSettings.getDatagramReadBatch(),
+                        networkSettings.udpGro(), player.getProxy().getDownstreamDatagramStats());
             }
         });
         return promise;
     }
 
+    /**
+     * Picks the event loop of the downstream channel. With event loop affinity enabled this is the event loop
+     * of the player's upstream channel, so batches forwarded between both connections are written directly
+     * instead of being submitted as a task to another thread.
+     */
+    private static EventLoop getDownstreamEventLoop(ProxiedPlayer player, NetworkSettings networkSettings) {
+        if (networkSettings.downstreamEventLoopAffinity() && player.getConnection() != null) {
+            Channel upstream = player.getConnection().getPeer().getChannel();
+            if (upstream.isRegistered()) {
+                return upstream.eventLoop();
+            }
+        }
+        return player.getProxy().getWorkerEventLoopGroup().next();
+    }
+
     /**
      * Sidesteps RakNet's per-IP connection rate limit by giving each connection its own source
      * address from the loopback range.
@@ -103,6 +132,53 @@ public class BedrockServerInfo extends ServerInfo {
         }
     }
 
+    /**
+     * Picks the next configured downstream bind address of the same family as the remote address.
+     * Each source address has its own ephemeral port range, so spreading connections over multiple
+     * addresses raises the amount of concurrent downstream connections a single host can hold.
+     *
+     * @return the address to bind to, or null if the OS should pick the source address
+     */
+    private static InetSocketAddress nextBindAddress(NetworkSettings networkSettings, InetAddress remoteAddress) {
+        List<InetAddress> addresses = resolveBindAddresses(networkSettings.getDownstreamBindAddresses());
+        int size = addresses.size();
+        if (size == 0) {
+            return null;
+        }
+
+        int start = bindAddressIndex.getAndIncrement();
+        for (int i = 0; i < size; i++) {
+            InetAddress address = addresses.get(Math.floorMod(start + i, size));
+            if (address.getClass() == remoteAddress.getClass()) {
+                return new InetSocketAddress(address, 0);
+            }
+        }
+        return null;
+    }
+
+    private static List<InetAddress> resolveBindAddresses(List<String> configured) {
+        BindAddresses cached = bindAddresses;
+        if (cached != null && cached.configured() == configured) {
+            return cached.resolved();
+        }
+
+        List<InetAddress> resolved = new ObjectArrayList<>();
+        if (configured != null) {
+            for (String address : configured) {
+                try {
+                    resolved.add(InetAddress.getByName(address));
+                } catch (UnknownHostException e) {
+                    ProxyServer.getInstance().getLogger().warning("Invalid downstream bind address " + address, e);
+                }
+            }
+        }
+        bindAddresses = new BindAddresses(configured, resolved);
+        return resolved;
+    }
+
+    private record BindAddresses(List<String> configured, List<InetAddress> resolved) {
+    }
+
     // Linux and Windows allow binding the whole 127.0.0.0/8 out of the box, macOS does not
     private static boolean isLoopbackBindSupported() {
         Boolean supported = loopbackBindSupported;
@@ -432,7 +432,7 @@ public class ProxiedPlayer implements CommandSender {
             connection.setPacketHandler(new CompressionInitHandler(this, connection, handler));
         } else {
             connection.setPacketHandler(handler);
-            connection.sendPacket(this.loginData.getLoginPacket());
+            connection.sendLoginPacket(this.loginData);
         }
 
         this.getLogger().info("[{}|{}] -> Downstream [{}] has connected", connection.getSocketAddress(), this.getName(), targetServer.getServerName());
@@ -22,6 +22,9 @@ import net.cubespace.Yamler.Config.Path;
 import net.cubespace.Yamler.Config.YamlConfig;
 import org.cloudburstmc.netty.channel.raknet.RakConstants;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Getter
 public class NetworkSettings extends YamlConfig {
 
@@ -30,6 +33,36 @@ public class NetworkSettings extends YamlConfig {
     @Comment("If enabled, the proxy will be able to bind to an Ipv6 Address")
     private boolean enableIpv6 = false;
 
+    @Path("use_io_uring")
+    @Accessors(fluent = true)
+    @Comment("Use the io_uring transport instead of epoll on Linux kernels supporting it. Falls back to epoll if io_uring is not available. Can also be enabled using the waterdog.ioUring system property.")
+    private boolean useIoUring = false;
+
+    @Path("reuseport_sockets")
+    @Comment("Number of sockets bound to every listener port using SO_REUSEPORT, so the kernel spreads incoming packets over multiple threads. Only supported with epoll and io_uring. Set to -1 to use one socket per core.")
+    private int reusePortSockets = -1;
+
+    @Path("boss_threads")
+    @Comment("Number of threads reading from the listener sockets, each socket is handled by one of them. Set to 0 to use twice the core count.")
+    private int bossThreads = 0;
+
+    @Path("worker_threads")
+    @Comment("Number of threads handling player and downstream server connections. Set to 0 to use twice the core count.")
+    private int workerThreads = 0;
+
+    @Path("datagram_read_batch")
+    @Comment("Maximum number of datagrams received by a single syscall using recvmmsg, reducing syscall overhead at high packet rates. Only supported with epoll. Set to 1 to receive one datagram per syscall.")
+    private int datagramReadBatch = 16;
+
+    @Path("udp_gro")
+    @Accessors(fluent = true)
+    @Comment("Enables UDP generic receive offload, letting the kernel coalesce datagrams of the same connection. Only used with epoll on kernels supporting it.")
+    private boolean udpGro = false;
+
+    @Path("ping_cache_interval")
+    @Comment("Time in milliseconds an encoded ping response is reused for, set to 0 to call the ProxyPingEvent for every ping. Changes of the player count or MOTD refresh the response immediately. A cached response is sent to every sender, plugins customizing it per address must mark the ProxyPingEvent as not cacheable using setCacheable(false).")
+    private int pingCacheInterval = 0;
+
     @Path("max_user_mtu")
     @Comment("Maximum MTU size of user <-> proxy connection that is allowed")
     private int maximumMtu = RakConstants.MAXIMUM_MTU_SIZE;
@@ -38,6 +71,23 @@ public class NetworkSettings extends YamlConfig {
     @Comment("Maximum MTU size of proxy <-> server connection that is allowed")
     private int maximumDownstreamMtu = RakConstants.MAXIMUM_MTU_SIZE;
 
+    @Path("contiguous_batch_encoding")
+    @Accessors(fluent = true)
+    @Comment("If enabled, packets of a batch are copied into a single buffer before compression instead of being compressed as many small buffers. Batches with large packets like chunk data are never copied.")
+    private boolean contiguousBatchEncoding = true;
+
+    @Path("outbound_latency_budget")
+    @Comment("Maximum time in milliseconds packets sent by the proxy to a downstream server are held back to be batched with other packets. Set to 0 to send every packet immediately.")
+    private int outboundLatencyBudget = 5;
+
+    @Path("outbound_max_batch_packets")
+    @Comment("Number of queued packets after which a batch is sent to the downstream server without waiting for the latency budget")
+    private int outboundMaxBatchPackets = 64;
+
+    @Path("outbound_max_batch_bytes")
+    @Comment("Number of queued bytes after which a batch is sent to the downstream server without waiting for the latency budget. Set to 0 to disable.")
+    private int outboundMaxBatchBytes = 32768;
+
     @Path("connection_timeout")
     @Comment("Server connection timeout in seconds")
     private int connectTimeout = 15;
@@ -74,8 +124,21 @@ public class NetworkSettings extends YamlConfig {
     @Comment("How many seconds a connection has to complete the login handshake (network settings -> login -> client-to-server handshake) before it is disconnected. Set to 0 to disable.")
     private int loginTimeout = 10;
 
+    @Path("downstream_event_loop_affinity")
+    @Accessors(fluent = true)
+    @Comment("If enabled, downstream connections are handled by the same network thread as the player's connection to the proxy, so forwarded packets never have to be handed over to another thread. Disable to spread downstream connections over all network threads.")
+    private boolean downstreamEventLoopAffinity = true;
+
     @Path("random_downstream_loopback_address")
     @Accessors(fluent = true)
     @Comment("Bind each downstream connection to a random 127.0.0.0/8 source address when the target server is on loopback. Certain server softwares like BDS rate limit connections per IP, this causes problems when transferring multiple players at the same time to a certain server. Requires an OS that allows binding the whole loopback range.")
     private boolean randomDownstreamLoopbackAddress = false;
+
+    @Path("downstream_bind_addresses")
+    @Comment("Local addresses of this host that connections to remote downstream servers are bound to in round robin order. Each address has its own ephemeral port range, so listing multiple addresses raises the number of concurrent downstream connections. Leave empty to let the OS pick the source address.")
+    private List<String> downstreamBindAddresses = new ArrayList<>();
+
+    public int getReusePortSockets() {
+        return this.reusePortSockets < 1 ? Runtime.getRuntime().availableProcessors() : this.reusePortSockets;
+    }
 }
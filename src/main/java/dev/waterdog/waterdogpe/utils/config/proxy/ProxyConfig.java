@@ -155,6 +155,39 @@ public class ProxyConfig extends YamlConfig {
     @Comment("Downstream server compression ratio(proxy to downstream server), higher = less bandwidth, more cpu, lower vice versa")
     private int downstreamCompression = 2;
 
+    @Path("adaptive_compression")
+    @Accessors(fluent = true)
+    @Comment("If enabled, the upstream compression level is picked for every batch: tiny batches are not compressed, small batches use a fast level and large chunk batches a strong one. Falls back to the fast level when a network thread spends too much time compressing. Only used for 1.20.60+ clients, older clients always use the configured level.")
+    private boolean adaptiveCompression = false;
+
+    @Path("compression_offload_threshold")
+    @Comment("Upstream batches with more uncompressed bytes than this are compressed on a separate thread pool, so large chunk batches do not stall other players handled by the same network thread. Set to 0 to compress everything on the network thread.")
+    private int compressionOffloadThreshold = 0;
+
+    @Path("compression_offload_threads")
+    @Comment("Number of threads compressing large upstream batches. Set to -1 to use half of the core count.")
+    private int compressionOffloadThreads = -1;
+
+    @Path("login_verification_threads")
+    @Comment("Number of threads verifying login chains and client data off the network threads. Set to -1 to use half of the core count.")
+    private int loginVerificationThreads = -1;
+
+    @Path("login_verification_queue")
+    @Comment("Maximum number of logins waiting for verification. Further logins are rejected until the queue drains.")
+    private int loginVerificationQueue = 256;
+
+    @Path("keypair_pool_size")
+    @Comment("Number of key pairs generated ahead of time for player logins to downstream servers. Set to 0 to generate a key pair during every login.")
+    private int keyPairPoolSize = 32;
+
+    @Path("keypair_pool_low_water_mark")
+    @Comment("The key pair pool is refilled in the background once fewer key pairs than this are left")
+    private int keyPairPoolLowWaterMark = 8;
+
+    @Path("chunk_blob_cache_size")
+    @Comment("Size in megabytes of the proxy-side store of chunk blobs sent by downstream servers to clients with client side chunk caching. Blobs missing on the client are answered from the store, which avoids sending identical chunks again after transferring between servers running copies of the same world. Set to 0 to disable.")
+    private int chunkBlobCacheSize = 64;
+
     @Path("enable_edu_features")
     @Accessors(fluent = true)
     @Comment("Education features require small adjustments to work correctly. Enable this option if any of downstream servers support education features.")
@@ -222,6 +255,14 @@ public class ProxyConfig extends YamlConfig {
         }
     }
 
+    public int getCompressionOffloadThreads() {
+        return this.compressionOffloadThreads < 1 ? Math.max(1, Runtime.getRuntime().availableProcessors() / 2) : this.compressionOffloadThreads;
+    }
+
+    public int getLoginVerificationThreads() {
+        return this.loginVerificationThreads < 1 ? Math.max(1, Runtime.getRuntime().availableProcessors() / 2) : this.loginVerificationThreads;
+    }
+
     public int getIdleThreads() {
         return this.defaultIdleThreads < 1 ? Runtime.getRuntime().availableProcessors() : this.defaultIdleThreads;
     }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatagramBatchingTest {
+
+    @Test
+    void keepsAllocatorWithoutBatching() {
+        NioDatagramChannel channel = new NioDatagramChannel();
+        try {
+            RecvByteBufAllocator allocator = channel.config().getRecvByteBufAllocator();
+            int maxMessagesPerRead = channel.config().getMaxMessagesPerRead();
+            DatagramBatching.configure(channel, 1400, 16, false, new DatagramReadStats());
+
+            assertSame(allocator, channel.config().getRecvByteBufAllocator(), "recvmmsg is not available on NIO");
+            assertEquals(maxMessagesPerRead, channel.config().getMaxMessagesPerRead());
+        } finally {
+            channel.close();
+        }
+    }
+
+    @Test
+    void keepsReadsPerWakeup() {
+        NioDatagramChannel channel = new NioDatagramChannel();
+        try {
+            channel.config().setRecvByteBufAllocator(new DatagramBatching.CountingAllocator(1400, 16, new DatagramReadStats()));
+            assertEquals(16, channel.config().getMaxMessagesPerRead());
+
+            channel.config().setMaxMessagesPerRead(8);
+            assertEquals(8, channel.config().getMaxMessagesPerRead());
+        } finally {
+            channel.close();
+        }
+    }
+
+    @Test
+    void countsDatagramsPerRead() {
+        NioDatagramChannel channel = new NioDatagramChannel();
+        try {
+            DatagramReadStats stats = new DatagramReadStats();
+            RecvByteBufAllocator.Handle handle = new DatagramBatching.CountingAllocator(1400 * 4, 16, stats).newHandle();
+            handle.reset(channel.config());
+
+            ByteBuf buf = handle.allocate(UnpooledByteBufAllocator.DEFAULT);
+            assertEquals(1400 * 4, buf.capacity(), "the buffer fits a whole recvmmsg batch");
+            buf.release();
+
+            handle.lastBytesRead(2800);
+            handle.incMessagesRead(2);
+            handle.lastBytesRead(1400);
+            handle.incMessagesRead(1);
+            handle.lastBytesRead(0);
+            handle.readComplete();
+
+            assertEquals(2, stats.getReads(), "empty reads are not counted");
+            assertEquals(3, stats.getDatagrams());
+            assertEquals(1.5, stats.getDatagramsPerRead(), 0.001);
+        } finally {
+            channel.close();
+        }
+    }
+}
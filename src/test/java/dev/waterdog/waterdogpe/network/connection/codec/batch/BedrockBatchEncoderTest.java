@@ -0,0 +1,87 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.batch;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
+import org.cloudburstmc.protocol.common.util.VarInts;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BedrockBatchEncoderTest {
+
+    private static BedrockBatchWrapper batch(int... sizes) {
+        BedrockBatchWrapper batch = BedrockBatchWrapper.newInstance();
+        for (int size : sizes) {
+            byte[] payload = new byte[size];
+            payload[0] = (byte) size;
+            BedrockPacketWrapper packet = BedrockPacketWrapper.create();
+            packet.setPacketBuffer(Unpooled.wrappedBuffer(payload));
+            batch.getPackets().add(packet);
+        }
+        return batch;
+    }
+
+    private static byte[] expected(int... sizes) {
+        ByteBuf buf = Unpooled.buffer();
+        for (int size : sizes) {
+            byte[] payload = new byte[size];
+            payload[0] = (byte) size;
+            VarInts.writeUnsignedInt(buf, size);
+            buf.writeBytes(payload);
+        }
+        return ByteBufUtil.getBytes(buf);
+    }
+
+    private static BedrockBatchWrapper encode(boolean contiguous, int... sizes) {
+        EmbeddedChannel channel = new EmbeddedChannel(new BedrockBatchEncoder(contiguous));
+        assertTrue(channel.writeOutbound(batch(sizes)));
+        BedrockBatchWrapper encoded = channel.readOutbound();
+        channel.finishAndReleaseAll();
+        return encoded;
+    }
+
+    @Test
+    void modesProduceSameBytes() {
+        int[] sizes = {1, 3, 200, 127, 128};
+        BedrockBatchWrapper composite = encode(false, sizes);
+        BedrockBatchWrapper contiguous = encode(true, sizes);
+
+        assertInstanceOf(CompositeByteBuf.class, composite.getUncompressed());
+        assertFalse(contiguous.getUncompressed() instanceof CompositeByteBuf);
+        assertEquals(contiguous.getUncompressed().capacity(), contiguous.getUncompressed().readableBytes(), "size is computed exactly");
+        assertArrayEquals(expected(sizes), ByteBufUtil.getBytes(composite.getUncompressed()));
+        assertArrayEquals(expected(sizes), ByteBufUtil.getBytes(contiguous.getUncompressed()));
+
+        composite.release();
+        contiguous.release();
+    }
+
+    @Test
+    void largePacketsStayComposite() {
+        int[] sizes = {10, 64 * 1024};
+        BedrockBatchWrapper encoded = encode(true, sizes);
+        assertInstanceOf(CompositeByteBuf.class, encoded.getUncompressed());
+        assertArrayEquals(expected(sizes), ByteBufUtil.getBytes(encoded.getUncompressed()));
+        encoded.release();
+    }
+}
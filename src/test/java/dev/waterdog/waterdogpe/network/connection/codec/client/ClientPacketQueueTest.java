@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.client;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClientPacketQueueTest {
+
+    private static BedrockPacketWrapper packet(int size) {
+        BedrockPacketWrapper packet = BedrockPacketWrapper.create();
+        packet.setPacketBuffer(Unpooled.wrappedBuffer(new byte[size]));
+        return packet;
+    }
+
+    @Test
+    void flushesOnPacketThreshold() {
+        ClientPacketQueue queue = new ClientPacketQueue(1, TimeUnit.MINUTES, 3, 0);
+        EmbeddedChannel channel = new EmbeddedChannel(queue);
+
+        channel.writeAndFlush(packet(1));
+        channel.writeAndFlush(packet(1));
+        assertNull(channel.readOutbound(), "packets are held back until a threshold is reached");
+
+        channel.writeAndFlush(packet(1));
+        BedrockBatchWrapper batch = channel.readOutbound();
+        assertEquals(3, batch.getPackets().size());
+        assertEquals(1, queue.getStats().getBatches());
+        assertEquals(3, queue.getStats().getPackets());
+
+        batch.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void flushesOnByteThreshold() {
+        ClientPacketQueue queue = new ClientPacketQueue(1, TimeUnit.MINUTES, 64, 100);
+        EmbeddedChannel channel = new EmbeddedChannel(queue);
+
+        channel.writeAndFlush(packet(60));
+        assertNull(channel.readOutbound());
+        channel.writeAndFlush(packet(60));
+
+        BedrockBatchWrapper batch = channel.readOutbound();
+        assertEquals(2, batch.getPackets().size());
+
+        batch.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void zeroBudgetFlushesImmediately() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ClientPacketQueue(0, TimeUnit.MILLISECONDS, 64, 0));
+
+        channel.writeAndFlush(packet(1));
+        BedrockBatchWrapper batch = channel.readOutbound();
+        assertEquals(1, batch.getPackets().size());
+
+        batch.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void batchWriteFlushesQueueFirst() {
+        EmbeddedChannel channel = new EmbeddedChannel(new ClientPacketQueue(1, TimeUnit.MINUTES, 64, 0));
+
+        channel.writeAndFlush(packet(1));
+        BedrockBatchWrapper forwarded = BedrockBatchWrapper.newInstance();
+        channel.writeAndFlush(forwarded);
+
+        BedrockBatchWrapper queued = channel.readOutbound();
+        assertEquals(1, queued.getPackets().size());
+        assertSame(forwarded, channel.readOutbound(), "queued packets are written before the batch");
+
+        queued.release();
+        forwarded.release();
+        channel.finishAndReleaseAll();
+    }
+}
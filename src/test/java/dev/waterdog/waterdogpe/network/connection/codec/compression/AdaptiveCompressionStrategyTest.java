@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.compression;
+
+import dev.waterdog.waterdogpe.network.connection.codec.compression.AdaptiveCompressionStrategy.Decision;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.SimpleCompressionStrategy;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveCompressionStrategyTest {
+
+    private static Decision decide(AdaptiveCompressionStrategy strategy, int size) {
+        BedrockBatchWrapper batch = BedrockBatchWrapper.newInstance();
+        batch.setUncompressed(Unpooled.wrappedBuffer(new byte[size]));
+        try {
+            return strategy.decide(batch);
+        } finally {
+            batch.release();
+        }
+    }
+
+    @Test
+    void decidesBySize() {
+        AdaptiveCompressionStrategy strategy = new AdaptiveCompressionStrategy(new SimpleCompressionStrategy(new DeflateCompression(true)), true);
+        assertEquals(Decision.UNCOMPRESSED, decide(strategy, 16));
+        assertEquals(Decision.FAST, decide(strategy, AdaptiveCompressionStrategy.TINY_BATCH_BYTES));
+        assertEquals(Decision.DEFAULT, decide(strategy, AdaptiveCompressionStrategy.SMALL_BATCH_BYTES));
+        assertEquals(Decision.STRONG, decide(strategy, AdaptiveCompressionStrategy.LARGE_BATCH_BYTES));
+    }
+
+    @Test
+    void usesDefaultCompressionWithoutCompressionHeader() {
+        AdaptiveCompressionStrategy strategy = new AdaptiveCompressionStrategy(new SimpleCompressionStrategy(new DeflateCompression(true)), false);
+        assertEquals(Decision.DEFAULT, decide(strategy, 16));
+        assertEquals(Decision.DEFAULT, decide(strategy, AdaptiveCompressionStrategy.LARGE_BATCH_BYTES));
+
+        BedrockBatchWrapper batch = BedrockBatchWrapper.newInstance();
+        batch.setUncompressed(Unpooled.wrappedBuffer(new byte[16]));
+        assertSame(strategy.getDefaultCompression(), strategy.getCompression(batch));
+        batch.release();
+    }
+
+    @Test
+    void encodesWithoutCompressionHeader() {
+        AdaptiveCompressionStrategy strategy = new AdaptiveCompressionStrategy(new SimpleCompressionStrategy(new DeflateCompression(true)), false);
+        EmbeddedChannel channel = new EmbeddedChannel(new ProxiedCompressionCodec(strategy, false));
+
+        for (int size : new int[]{16, AdaptiveCompressionStrategy.SMALL_BATCH_BYTES, AdaptiveCompressionStrategy.LARGE_BATCH_BYTES}) {
+            BedrockBatchWrapper batch = BedrockBatchWrapper.newInstance();
+            batch.setUncompressed(Unpooled.wrappedBuffer(new byte[size]));
+            assertTrue(channel.writeOutbound(batch));
+
+            BedrockBatchWrapper written = channel.readOutbound();
+            assertSame(batch, written);
+            assertNotNull(written.getCompressed());
+            written.release();
+        }
+        channel.finishAndReleaseAll();
+    }
+}
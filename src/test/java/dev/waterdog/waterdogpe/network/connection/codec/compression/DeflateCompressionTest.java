@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DeflateCompressionTest {
+
+    private static ChannelHandlerContext context() {
+        ChannelHandlerContext ctx = mock(ChannelHandlerContext.class);
+        when(ctx.alloc()).thenReturn(ByteBufAllocator.DEFAULT);
+        return ctx;
+    }
+
+    private static byte[] payload(int size) {
+        byte[] bytes = new byte[size];
+        Random random = new Random(size);
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (random.nextInt(16) + i % 7); // compressible but not uniform
+        }
+        return bytes;
+    }
+
+    @Test
+    void compositeBatchRoundTrip() throws Exception {
+        byte[] first = payload(1000);
+        byte[] second = payload(70000);
+        CompositeByteBuf batch = Unpooled.compositeBuffer();
+        batch.addComponent(true, Unpooled.directBuffer().writeBytes(first));
+        batch.addComponent(true, Unpooled.wrappedBuffer(second));
+
+        DeflateCompression compression = new DeflateCompression(true);
+        ChannelHandlerContext ctx = context();
+        ByteBuf compressed = compression.encode(ctx, batch);
+        ByteBuf decompressed = compression.decode(ctx, compressed);
+
+        byte[] expected = new byte[first.length + second.length];
+        System.arraycopy(first, 0, expected, 0, first.length);
+        System.arraycopy(second, 0, expected, first.length, second.length);
+        assertArrayEquals(expected, ByteBufUtil.getBytes(decompressed));
+
+        batch.release();
+        compressed.release();
+        decompressed.release();
+    }
+
+    @Test
+    void compatibleWithZlibStreams() throws Exception {
+        byte[] data = payload(5000);
+        Deflater deflater = new Deflater(6, false);
+        deflater.setInput(data);
+        deflater.finish();
+        byte[] buffer = new byte[data.length + 64];
+        int length = deflater.deflate(buffer);
+        deflater.end();
+
+        DeflateCompression compression = new DeflateCompression(false);
+        ByteBuf decompressed = compression.decode(context(), Unpooled.wrappedBuffer(buffer, 0, length));
+        assertArrayEquals(data, ByteBufUtil.getBytes(decompressed));
+        decompressed.release();
+
+        ByteBuf compressed = compression.encode(context(), Unpooled.wrappedBuffer(data));
+        Inflater inflater = new Inflater(false);
+        inflater.setInput(ByteBufUtil.getBytes(compressed));
+        byte[] inflated = new byte[data.length];
+        assertEquals(data.length, inflater.inflate(inflated));
+        assertTrue(inflater.finished());
+        inflater.end();
+        compressed.release();
+        assertArrayEquals(data, inflated);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.compression;
+
+import dev.waterdog.waterdogpe.network.connection.codec.initializer.ProxiedSessionInitializer;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProxiedCompressionCodecTest {
+
+    private static BedrockBatchWrapper batch(int size) {
+        BedrockBatchWrapper batch = BedrockBatchWrapper.newInstance();
+        batch.setUncompressed(Unpooled.wrappedBuffer(new byte[size]));
+        return batch;
+    }
+
+    @Test
+    void offloadedBatchesKeepWriteOrder() {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        EmbeddedChannel channel = new EmbeddedChannel(new ProxiedCompressionCodec(ProxiedSessionInitializer.NOOP_STRATEGY, false, tasks::add, 64));
+
+        BedrockBatchWrapper large = batch(128);
+        BedrockBatchWrapper small = batch(8);
+        channel.write(large);
+        channel.write(small);
+        channel.flush();
+
+        assertNull(channel.readOutbound(), "small batch must wait for the offloaded one");
+        assertEquals(1, tasks.size(), "only the large batch is offloaded");
+
+        tasks.poll().run();
+        channel.runPendingTasks();
+
+        assertSame(large, channel.readOutbound());
+        assertSame(small, channel.readOutbound());
+        assertNull(channel.readOutbound());
+
+        large.release();
+        small.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void smallBatchesStayInline() {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        EmbeddedChannel channel = new EmbeddedChannel(new ProxiedCompressionCodec(ProxiedSessionInitializer.NOOP_STRATEGY, false, tasks::add, 64));
+
+        BedrockBatchWrapper small = batch(8);
+        channel.writeAndFlush(small);
+
+        assertTrue(tasks.isEmpty());
+        assertSame(small, channel.readOutbound());
+        assertNotNull(small.getCompressed());
+
+        small.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void removalFailsBatchesStillBeingCompressed() {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        ProxiedCompressionCodec codec = new ProxiedCompressionCodec(ProxiedSessionInitializer.NOOP_STRATEGY, false, tasks::add, 64);
+        EmbeddedChannel channel = new EmbeddedChannel(codec);
+
+        ChannelFuture large = channel.write(batch(128));
+        ChannelFuture small = channel.write(batch(8));
+        assertTrue(codec.hasPendingWrites());
+
+        channel.pipeline().remove(codec);
+        assertFalse(codec.hasPendingWrites());
+        assertTrue(large.isDone() && !large.isSuccess(), "offloaded batch can not be written after removal");
+        assertTrue(small.isDone() && !small.isSuccess(), "batches behind it can not be written out of order");
+
+        // The offloaded compression finishing later must not write anything
+        tasks.poll().run();
+        channel.runPendingTasks();
+        assertNull(channel.readOutbound());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void tasksRunAfterPendingWrites() {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        ProxiedCompressionCodec codec = new ProxiedCompressionCodec(ProxiedSessionInitializer.NOOP_STRATEGY, false, tasks::add, 64);
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.pipeline().addLast(CompressionCodec.NAME, codec);
+        ChannelHandlerContext ctx = channel.pipeline().context(CompressionCodec.NAME);
+
+        BedrockBatchWrapper large = batch(128);
+        BedrockBatchWrapper small = batch(8);
+        List<Object> writtenBeforeTask = new ArrayList<>();
+        channel.write(large);
+        codec.executeAfterPendingWrites(ctx, () -> {
+            writtenBeforeTask.addAll(channel.outboundMessages());
+            assertNull(small.getCompressed(), "batches written after the task must be held back uncompressed");
+        });
+        channel.write(small);
+        channel.flush();
+        assertTrue(writtenBeforeTask.isEmpty(), "task must wait for the offloaded batch");
+
+        tasks.poll().run();
+        channel.runPendingTasks();
+
+        assertEquals(List.of(large), writtenBeforeTask);
+        assertSame(large, channel.readOutbound());
+        assertSame(small, channel.readOutbound());
+        assertNotNull(small.getCompressed());
+        assertFalse(codec.hasPendingWrites());
+
+        large.release();
+        small.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void replacingCodecPassesHeldWritesOn() {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        ProxiedCompressionCodec codec = new ProxiedCompressionCodec(ProxiedSessionInitializer.NOOP_STRATEGY, false, tasks::add, 64);
+        ProxiedCompressionCodec successor = new ProxiedCompressionCodec(ProxiedSessionInitializer.NOOP_STRATEGY, false);
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.pipeline().addLast(CompressionCodec.NAME, codec);
+
+        BedrockBatchWrapper large = batch(128);
+        BedrockBatchWrapper small = batch(8);
+        channel.write(large);
+        codec.executeAfterPendingWrites(channel.pipeline().context(CompressionCodec.NAME),
+                () -> channel.pipeline().replace(CompressionCodec.NAME, CompressionCodec.NAME, successor));
+        ChannelFuture future = channel.write(small);
+        channel.flush();
+        assertSame(codec, channel.pipeline().get(CompressionCodec.NAME));
+
+        tasks.poll().run();
+        channel.runPendingTasks();
+
+        assertSame(successor, channel.pipeline().get(CompressionCodec.NAME));
+        assertTrue(future.isSuccess(), "held back batch is written by the new codec");
+        assertSame(large, channel.readOutbound());
+        assertSame(small, channel.readOutbound());
+        assertNotNull(small.getCompressed());
+
+        large.release();
+        small.release();
+        channel.finishAndReleaseAll();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.connection.codec.encryption;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.encryption.BedrockEncryptionDecoder;
+import org.cloudburstmc.protocol.bedrock.netty.codec.encryption.BedrockEncryptionEncoder;
+import org.cloudburstmc.protocol.bedrock.util.EncryptionUtils;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProxiedEncryptionCodecTest {
+    private static final SecretKey KEY = new SecretKeySpec(randomBytes(32), "AES");
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return bytes;
+    }
+
+    private static BedrockBatchWrapper batch(ByteBuf compressed) {
+        BedrockBatchWrapper batch = BedrockBatchWrapper.newInstance();
+        batch.setCompressed(compressed);
+        return batch;
+    }
+
+    private static ChannelHandler encoder(boolean proxied) throws Exception {
+        return proxied ? new ProxiedEncryptionEncoder(KEY, EncryptionUtils.createCipher(true, true, KEY)) :
+                new BedrockEncryptionEncoder(KEY, EncryptionUtils.createCipher(true, true, KEY));
+    }
+
+    private static ChannelHandler decoder(boolean proxied) throws Exception {
+        return proxied ? new ProxiedEncryptionDecoder(KEY, EncryptionUtils.createCipher(true, false, KEY)) :
+                new BedrockEncryptionDecoder(KEY, EncryptionUtils.createCipher(true, false, KEY));
+    }
+
+    private static void assertRoundTrip(boolean proxiedEncoder, boolean proxiedDecoder) throws Exception {
+        EmbeddedChannel encoder = new EmbeddedChannel(encoder(proxiedEncoder));
+        EmbeddedChannel decoder = new EmbeddedChannel(decoder(proxiedDecoder));
+
+        for (int size : new int[]{64, 1500, 65536}) { // several frames advance the checksum counter
+            byte[] payload = randomBytes(size);
+            assertTrue(encoder.writeOutbound(batch(Unpooled.directBuffer(size).writeBytes(payload))));
+            BedrockBatchWrapper encrypted = encoder.readOutbound();
+            assertEquals(size + EncryptionChecksum.SIZE, encrypted.getCompressed().readableBytes());
+
+            assertTrue(decoder.writeInbound(encrypted));
+            BedrockBatchWrapper decrypted = decoder.readInbound();
+            assertArrayEquals(payload, ByteBufUtil.getBytes(decrypted.getCompressed()));
+            decrypted.release();
+        }
+
+        encoder.finishAndReleaseAll();
+        decoder.finishAndReleaseAll();
+    }
+
+    @Test
+    void compatibleWithDefaultCodec() throws Exception {
+        assertRoundTrip(true, false);
+        assertRoundTrip(false, true);
+        assertRoundTrip(true, true);
+    }
+
+    @Test
+    void encryptsCompositeBuffers() throws Exception {
+        EmbeddedChannel encoder = new EmbeddedChannel(encoder(true));
+        EmbeddedChannel decoder = new EmbeddedChannel(decoder(false));
+
+        byte[] first = randomBytes(100);
+        byte[] second = randomBytes(300);
+        CompositeByteBuf composite = Unpooled.compositeBuffer();
+        composite.addComponent(true, Unpooled.directBuffer().writeBytes(first));
+        composite.addComponent(true, Unpooled.wrappedBuffer(second));
+
+        assertTrue(encoder.writeOutbound(batch(composite)));
+        assertTrue(decoder.writeInbound((Object) encoder.readOutbound()));
+        BedrockBatchWrapper decrypted = decoder.readInbound();
+
+        byte[] expected = new byte[first.length + second.length];
+        System.arraycopy(first, 0, expected, 0, first.length);
+        System.arraycopy(second, 0, expected, first.length, second.length);
+        assertArrayEquals(expected, ByteBufUtil.getBytes(decrypted.getCompressed()));
+
+        decrypted.release();
+        encoder.finishAndReleaseAll();
+        decoder.finishAndReleaseAll();
+    }
+
+    @Test
+    void rejectsCorruptedTrailer() throws Exception {
+        EmbeddedChannel encoder = new EmbeddedChannel(encoder(true));
+        EmbeddedChannel decoder = new EmbeddedChannel(decoder(true));
+
+        assertTrue(encoder.writeOutbound(batch(Unpooled.directBuffer().writeBytes(randomBytes(32)))));
+        BedrockBatchWrapper encrypted = encoder.readOutbound();
+        ByteBuf compressed = encrypted.getCompressed();
+        int last = compressed.writerIndex() - 1;
+        compressed.setByte(last, compressed.getByte(last) ^ 1);
+
+        assertThrows(DecoderException.class, () -> decoder.writeInbound(encrypted));
+        encoder.finishAndReleaseAll();
+        decoder.finishAndReleaseAll();
+    }
+}
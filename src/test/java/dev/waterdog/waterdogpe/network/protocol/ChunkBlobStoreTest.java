@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol;
+
+import dev.waterdog.waterdogpe.utils.XXHash64;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheMissResponsePacket;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkBlobStoreTest {
+
+    private static byte[] blob(int seed) {
+        byte[] data = new byte[10];
+        Arrays.fill(data, (byte) seed);
+        return data;
+    }
+
+    private static long id(int seed) {
+        return XXHash64.hash(blob(seed));
+    }
+
+    private static Map<Long, ByteBuf> blobs(int... seeds) {
+        Map<Long, ByteBuf> blobs = new Long2ObjectOpenHashMap<>();
+        for (int seed : seeds) {
+            blobs.put(id(seed), Unpooled.wrappedBuffer(blob(seed)));
+        }
+        return blobs;
+    }
+
+    @Test
+    void answersStoredMisses() {
+        ChunkBlobStore store = new ChunkBlobStore(1024);
+        store.store(blobs(1, 2));
+
+        List<Long> naks = new LongArrayList(new long[]{id(1), id(3)});
+        List<Long> acks = new LongArrayList(new long[]{id(4)});
+        ClientCacheMissResponsePacket response = store.answerMisses(naks, acks);
+
+        assertNotNull(response);
+        assertEquals(1, response.getBlobs().size());
+        assertTrue(response.getBlobs().containsKey(id(1)));
+        assertEquals(List.of(id(3)), naks, "unknown blobs are still requested from the server");
+        assertEquals(List.of(id(4), id(1)), acks, "answered blobs are acknowledged to the server");
+        assertEquals(1, store.getHits());
+        assertEquals(1, store.getMisses());
+        assertEquals(10, store.getBytesSaved());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        ChunkBlobStore store = new ChunkBlobStore(25, 1);
+        store.store(blobs(1));
+        store.store(blobs(2));
+        assertNotNull(store.get(id(1)));
+
+        store.store(blobs(3));
+        assertEquals(2, store.getBlobCount());
+        assertEquals(20, store.getStoredBytes());
+        assertNull(store.get(id(2)), "the least recently used blob is evicted first");
+        assertNotNull(store.get(id(1)));
+        assertNotNull(store.get(id(3)));
+        assertEquals(1, store.getEvictions());
+    }
+
+    @Test
+    void rejectsBlobsNotMatchingTheirId() {
+        ChunkBlobStore store = new ChunkBlobStore(1024);
+        store.store(Map.of(id(1), Unpooled.wrappedBuffer(blob(2))));
+
+        assertNull(store.get(id(1)), "a server must not be able to store content under a foreign id");
+        assertEquals(0, store.getBlobCount());
+        assertEquals(1, store.getRejected());
+    }
+
+    @Test
+    void returnsNullWithoutStoredBlobs() {
+        ChunkBlobStore store = new ChunkBlobStore(1024);
+        assertNull(store.answerMisses(new LongArrayList(new long[]{id(1)}), new LongArrayList()));
+    }
+}
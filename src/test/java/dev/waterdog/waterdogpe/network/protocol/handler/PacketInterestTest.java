@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol.handler;
+
+import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
+import dev.waterdog.waterdogpe.network.protocol.handler.downstream.ConnectedDownstreamHandler;
+import dev.waterdog.waterdogpe.network.protocol.rewrite.EntityMap;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
+import org.cloudburstmc.protocol.bedrock.packet.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PacketInterestTest {
+
+    private static int packetId(BedrockCodec codec, Class<? extends BedrockPacket> packet) {
+        return codec.getPacketDefinition(packet).getId();
+    }
+
+    @Test
+    void scanFindsHandleMethodsOfWholeHierarchy() {
+        Set<Class<? extends BedrockPacket>> packets = PacketInterest.getHandledPackets(ConnectedDownstreamHandler.class);
+        assertTrue(packets.contains(TransferPacket.class), "declared by ConnectedDownstreamHandler");
+        assertTrue(packets.contains(AvailableCommandsPacket.class), "declared by AbstractDownstreamHandler");
+        assertFalse(packets.contains(MovePlayerPacket.class));
+
+        assertTrue(PacketInterest.getHandledPackets(EntityMap.class).contains(MoveEntityAbsolutePacket.class));
+    }
+
+    @Test
+    void bitmapMatchesCodecIds() {
+        BedrockCodec codec = ProtocolVersion.latest().getCodec();
+        PacketInterest interest = PacketInterest.of(codec, List.of(TextPacket.class, LevelChunkPacket.class));
+
+        assertTrue(interest.isInterested(packetId(codec, TextPacket.class)));
+        assertTrue(interest.isInterested(packetId(codec, LevelChunkPacket.class)));
+        assertFalse(interest.isInterested(packetId(codec, MovePlayerPacket.class)));
+        assertFalse(interest.isInterested(-1));
+        assertFalse(interest.isInterested(PacketInterest.MAX_PACKET_ID + 1));
+    }
+
+    @Test
+    void nullMeansEveryPacket() {
+        PacketInterest interest = PacketInterest.of(ProtocolVersion.latest().getCodec(), null);
+        assertSame(PacketInterest.ALL, interest);
+        assertTrue(interest.isInterested(0));
+        assertTrue(interest.isInterested(PacketInterest.MAX_PACKET_ID));
+    }
+}
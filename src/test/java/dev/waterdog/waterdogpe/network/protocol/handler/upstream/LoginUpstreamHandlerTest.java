@@ -0,0 +1,186 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dev.waterdog.waterdogpe.network.protocol.handler.upstream;
+
+import com.google.gson.JsonObject;
+import dev.waterdog.waterdogpe.ProxyServer;
+import dev.waterdog.waterdogpe.event.Event;
+import dev.waterdog.waterdogpe.event.EventManager;
+import dev.waterdog.waterdogpe.event.defaults.PlayerAuthenticatedEvent;
+import dev.waterdog.waterdogpe.logger.MainLogger;
+import dev.waterdog.waterdogpe.network.NetworkMetrics;
+import dev.waterdog.waterdogpe.network.connection.peer.BedrockServerSession;
+import dev.waterdog.waterdogpe.network.connection.peer.ProxiedBedrockPeer;
+import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
+import dev.waterdog.waterdogpe.network.protocol.user.HandshakeEntry;
+import dev.waterdog.waterdogpe.network.protocol.user.HandshakeUtils;
+import dev.waterdog.waterdogpe.network.protocol.user.LoginData;
+import dev.waterdog.waterdogpe.security.SecurityManager;
+import dev.waterdog.waterdogpe.utils.config.proxy.NetworkSettings;
+import dev.waterdog.waterdogpe.utils.config.proxy.ProxyConfig;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.cloudburstmc.protocol.bedrock.data.auth.AuthType;
+import org.cloudburstmc.protocol.bedrock.data.auth.TokenPayload;
+import org.cloudburstmc.protocol.bedrock.packet.LoginPacket;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.net.InetSocketAddress;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Login verification is handed to the login executor and its result back to the event loop of the session.
+ * Tasks of the login executor are captured and run on the test thread, tasks of the event loop are queued
+ * by the embedded channel until {@link EmbeddedChannel#runPendingTasks()} is called.
+ */
+public class LoginUpstreamHandlerTest {
+
+    private static final ProtocolVersion PROTOCOL = ProtocolVersion.MINECRAFT_PE_1_19_20;
+
+    private final ProxyServer proxy = mock(ProxyServer.class);
+    private final EventManager eventManager = mock(EventManager.class);
+    private final SecurityManager securityManager = mock(SecurityManager.class);
+    private final NetworkMetrics metrics = mock(NetworkMetrics.class);
+    private final BedrockServerSession session = mock(BedrockServerSession.class);
+    private final List<Runnable> loginTasks = new ArrayList<>();
+    private final List<Event> events = new ArrayList<>();
+    private final EmbeddedChannel channel = new EmbeddedChannel();
+    private ThreadPoolExecutor loginExecutor;
+    private boolean loginQueueFull;
+
+    @BeforeEach
+    void setUp() {
+        this.loginExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            public void execute(Runnable command) {
+                if (loginQueueFull) {
+                    throw new RejectedExecutionException("Login queue is full");
+                }
+                loginTasks.add(command);
+            }
+        };
+
+        when(this.proxy.getLogger()).thenReturn(mock(MainLogger.class));
+        when(this.proxy.getConfiguration()).thenReturn(mock(ProxyConfig.class));
+        when(this.proxy.getNetworkSettings()).thenReturn(mock(NetworkSettings.class));
+        when(this.proxy.getEventManager()).thenReturn(this.eventManager);
+        when(this.proxy.getSecurityManager()).thenReturn(this.securityManager);
+        when(this.proxy.getNetworkMetrics()).thenReturn(this.metrics);
+        when(this.proxy.getLoginExecutor()).thenAnswer(invocation -> this.loginExecutor);
+        when(this.securityManager.onLoginAttempt(any())).thenReturn(true);
+
+        when(this.eventManager.callEvent(any())).thenAnswer(invocation -> {
+            Event event = invocation.getArgument(0);
+            this.events.add(event);
+            if (event instanceof PlayerAuthenticatedEvent authenticatedEvent) {
+                authenticatedEvent.setCancelled(); // the login stops before the player is created
+            }
+            return CompletableFuture.completedFuture(event);
+        });
+
+        ProxiedBedrockPeer peer = mock(ProxiedBedrockPeer.class);
+        when(peer.getChannel()).thenReturn(this.channel);
+        when(this.session.getPeer()).thenReturn(peer);
+        when(this.session.isConnected()).thenReturn(true);
+        when(this.session.getSocketAddress()).thenReturn(new InetSocketAddress("127.0.0.1", 19132));
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.channel.finishAndReleaseAll();
+    }
+
+    private static LoginPacket loginPacket() {
+        LoginPacket packet = new LoginPacket();
+        packet.setProtocolVersion(PROTOCOL.getProtocol());
+        packet.setAuthPayload(new TokenPayload("invalid", AuthType.SELF_SIGNED));
+        packet.setClientJwt("invalid");
+        return packet;
+    }
+
+    private void runLoginTasks() {
+        List<Runnable> tasks = new ArrayList<>(this.loginTasks);
+        this.loginTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    @Test
+    void rejectsLoginWhenVerificationQueueIsFull() {
+        this.loginQueueFull = true;
+
+        new LoginUpstreamHandler(this.proxy, this.session).handle(loginPacket());
+
+        verify(this.metrics).loginVerificationRejected();
+        verify(this.session).disconnect("Server is busy, please try again later");
+        verify(this.metrics, never()).loginVerificationQueued(anyInt());
+    }
+
+    @Test
+    void verificationFailureDisconnectsOnEventLoop() {
+        new LoginUpstreamHandler(this.proxy, this.session).handle(loginPacket());
+        verify(this.metrics).loginVerificationQueued(anyInt());
+        assertEquals(1, this.loginTasks.size());
+
+        this.runLoginTasks(); // the payload is no valid token
+        verify(this.session, never()).disconnect(anyString());
+
+        this.channel.runPendingTasks();
+        verify(this.securityManager).onLoginFailed(any(), any(), any(), anyString());
+        verify(this.session).disconnect("Login Failed");
+    }
+
+    @Test
+    void buildsLoginDataOnEventLoop() throws Exception {
+        HandshakeEntry entry = mock(HandshakeEntry.class);
+        LoginData loginData = mock(LoginData.class);
+        when(entry.isXboxAuthed()).thenReturn(true);
+        when(entry.getClientData()).thenReturn(new JsonObject());
+        when(entry.getProtocol()).thenReturn(PROTOCOL);
+        when(entry.getDisplayName()).thenReturn("Steve");
+        when(entry.buildData(any(), any(), any())).thenReturn(loginData);
+
+        new LoginUpstreamHandler(this.proxy, this.session).handle(loginPacket());
+
+        // Static mocks only apply to the thread creating them, so the captured login task has to run here
+        try (MockedStatic<HandshakeUtils> handshakeUtils = mockStatic(HandshakeUtils.class)) {
+            handshakeUtils.when(() -> HandshakeUtils.processHandshake(any(), any(), any(), anyBoolean())).thenReturn(entry);
+            this.runLoginTasks();
+        }
+        verify(entry, never()).buildData(any(), any(), any(KeyPair.class));
+        assertTrue(this.events.isEmpty(), "no event may be called by the login executor");
+
+        this.channel.runPendingTasks();
+        verify(entry).buildData(same(this.session), same(this.proxy), any(KeyPair.class));
+        assertEquals(1, this.events.size());
+        assertTrue(this.events.get(0) instanceof PlayerAuthenticatedEvent);
+        verify(this.session).disconnect("Login was cancelled");
+    }
+}
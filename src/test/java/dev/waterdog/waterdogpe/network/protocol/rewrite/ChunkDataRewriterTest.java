@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol.rewrite;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.cloudburstmc.protocol.common.util.VarInts;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChunkDataRewriterTest {
+
+    private static final int WORDS_1_BIT = 16 * 16 * 16 / 32;
+
+    private static void writeStorage(ByteBuf buf, int[] palette) {
+        buf.writeByte((1 << 1) | 1); // 1 bit per block, runtime palette
+        for (int i = 0; i < WORDS_1_BIT; i++) {
+            buf.writeIntLE(0x55555555 + i);
+        }
+        VarInts.writeInt(buf, palette.length);
+        for (int runtimeId : palette) {
+            VarInts.writeInt(buf, runtimeId);
+        }
+    }
+
+    private static ByteBuf rewrite(ByteBuf from, int sections) {
+        ChunkDataRewriter rewriter = new ChunkDataRewriter(from, UnpooledByteBufAllocator.DEFAULT, id -> id + 1000);
+        for (int i = 0; i < sections; i++) {
+            assertEquals(ChunkDataRewriter.Result.REWRITTEN, rewriter.rewriteSubChunk());
+        }
+        return rewriter.finish();
+    }
+
+    @Test
+    void rewritesPalettesAndKeepsWords() {
+        ByteBuf from = Unpooled.buffer();
+        from.writeByte(8).writeByte(1);
+        writeStorage(from, new int[]{0, 5});
+        from.writeByte(9).writeByte(2).writeByte(-4);
+        writeStorage(from, new int[]{7});
+        from.writeByte(1); // 0 bits per block, the storage is a single block
+        VarInts.writeInt(from, 3);
+        from.writeBytes(new byte[]{42, 43}); // biomes and other trailing data
+
+        ByteBuf expected = Unpooled.buffer();
+        expected.writeByte(8).writeByte(1);
+        writeStorage(expected, new int[]{1000, 1005});
+        expected.writeByte(9).writeByte(2).writeByte(-4);
+        writeStorage(expected, new int[]{1007});
+        expected.writeByte(1);
+        VarInts.writeInt(expected, 1003);
+        expected.writeBytes(new byte[]{42, 43});
+
+        ByteBuf to = rewrite(from, 2);
+        assertTrue(ByteBufUtil.equals(expected, to), () -> ByteBufUtil.prettyHexDump(to));
+
+        from.release();
+        assertTrue(from.refCnt() > 0, "rewritten data keeps the original words alive");
+        to.release();
+        assertEquals(0, from.refCnt());
+        expected.release();
+    }
+
+    @Test
+    void rejectsPersistentPalettes() {
+        ByteBuf from = Unpooled.buffer();
+        from.writeByte(8).writeByte(1).writeByte(1 << 1);
+
+        ChunkDataRewriter rewriter = new ChunkDataRewriter(from, UnpooledByteBufAllocator.DEFAULT, id -> id);
+        assertEquals(ChunkDataRewriter.Result.UNSUPPORTED, rewriter.rewriteSubChunk());
+        rewriter.release();
+        assertEquals(1, from.refCnt());
+        from.release();
+    }
+
+    @Test
+    void takesOverLegacyData() {
+        ByteBuf from = Unpooled.wrappedBuffer(new byte[]{0, 1, 2, 3});
+
+        ChunkDataRewriter rewriter = new ChunkDataRewriter(from, UnpooledByteBufAllocator.DEFAULT, id -> id);
+        assertEquals(ChunkDataRewriter.Result.LEGACY, rewriter.rewriteSubChunk());
+        ByteBuf to = rewriter.finish();
+        assertTrue(ByteBufUtil.equals(Unpooled.wrappedBuffer(new byte[]{0, 1, 2, 3}), to));
+        to.release();
+        from.release();
+    }
+}
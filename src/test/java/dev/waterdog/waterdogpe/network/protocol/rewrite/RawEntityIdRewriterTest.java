@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol.rewrite;
+
+import dev.waterdog.waterdogpe.network.protocol.ProtocolVersion;
+import dev.waterdog.waterdogpe.network.protocol.rewrite.types.RewriteData;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.cloudburstmc.math.vector.Vector3f;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodecHelper;
+import org.cloudburstmc.protocol.bedrock.data.PacketRecipient;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.MovePlayerPacket;
+import org.cloudburstmc.protocol.bedrock.packet.SetEntityMotionPacket;
+import org.cloudburstmc.protocol.common.util.VarInts;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RawEntityIdRewriterTest {
+    private static final long CLIENT_ID = 1;
+    private static final long DOWNSTREAM_ID = 300;
+
+    private final BedrockCodec codec = ProtocolVersion.latest().getCodec();
+    private final BedrockCodecHelper helper = codec.createHelper();
+    private final RawEntityIdRewriter rewriter = new RawEntityIdRewriter(codec);
+    private final RewriteData data = new RewriteData();
+
+    RawEntityIdRewriterTest() {
+        this.data.setEntityId(CLIENT_ID);
+        this.data.setOriginalEntityId(DOWNSTREAM_ID);
+    }
+
+    private BedrockPacketWrapper encode(BedrockPacket packet) {
+        int packetId = this.codec.getPacketDefinition(packet.getClass()).getId();
+        ByteBuf buf = Unpooled.buffer();
+        VarInts.writeUnsignedInt(buf, packetId);
+        int headerLength = buf.writerIndex();
+        this.codec.tryEncode(this.helper, buf, packet);
+        BedrockPacketWrapper wrapper = BedrockPacketWrapper.create(packetId, 0, 0, null, buf);
+        wrapper.setHeaderLength(headerLength);
+        return wrapper;
+    }
+
+    private BedrockPacket decode(BedrockPacketWrapper wrapper) {
+        ByteBuf buf = wrapper.getPacketBuffer().duplicate();
+        VarInts.readUnsignedInt(buf);
+        return this.codec.tryDecode(this.helper, buf, wrapper.getPacketId(), PacketRecipient.CLIENT);
+    }
+
+    @Test
+    void rewritesMatchingRuntimeId() {
+        SetEntityMotionPacket packet = new SetEntityMotionPacket();
+        packet.setRuntimeEntityId(DOWNSTREAM_ID);
+        packet.setMotion(Vector3f.from(1, 2, 3));
+        BedrockPacketWrapper wrapper = this.encode(packet);
+
+        assertTrue(this.rewriter.isSupported(wrapper.getPacketId()));
+        assertTrue(this.rewriter.rewrite(wrapper, this.data));
+
+        SetEntityMotionPacket rewritten = (SetEntityMotionPacket) this.decode(wrapper);
+        assertEquals(CLIENT_ID, rewritten.getRuntimeEntityId());
+        assertEquals(packet.getMotion(), rewritten.getMotion());
+    }
+
+    @Test
+    void keepsBufferOfOtherEntities() {
+        SetEntityMotionPacket packet = new SetEntityMotionPacket();
+        packet.setRuntimeEntityId(42);
+        packet.setMotion(Vector3f.ZERO);
+        BedrockPacketWrapper wrapper = this.encode(packet);
+        ByteBuf buffer = wrapper.getPacketBuffer();
+
+        assertFalse(this.rewriter.rewrite(wrapper, this.data));
+        assertSame(buffer, wrapper.getPacketBuffer());
+    }
+
+    @Test
+    void rewritesMovePlayerRidingId() {
+        MovePlayerPacket packet = new MovePlayerPacket();
+        packet.setRuntimeEntityId(42);
+        packet.setPosition(Vector3f.from(10, 64, 10));
+        packet.setRotation(Vector3f.from(0, 90, 90));
+        packet.setMode(MovePlayerPacket.Mode.NORMAL);
+        packet.setRidingRuntimeEntityId(DOWNSTREAM_ID);
+        packet.setTick(7);
+        BedrockPacketWrapper wrapper = this.encode(packet);
+
+        assertTrue(this.rewriter.rewrite(wrapper, this.data));
+
+        MovePlayerPacket rewritten = (MovePlayerPacket) this.decode(wrapper);
+        assertEquals(42, rewritten.getRuntimeEntityId());
+        assertEquals(CLIENT_ID, rewritten.getRidingRuntimeEntityId());
+        assertEquals(packet.getPosition(), rewritten.getPosition());
+        assertEquals(packet.getTick(), rewritten.getTick());
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol.rewrite.types;
+
+import org.cloudburstmc.nbt.NbtList;
+import org.cloudburstmc.nbt.NbtMap;
+import org.cloudburstmc.nbt.NbtType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockPaletteRegistryTest {
+
+    private static NbtList<NbtMap> paletteData(String... names) {
+        List<NbtMap> entries = new ArrayList<>();
+        for (String name : names) {
+            entries.add(NbtMap.builder()
+                    .putCompound("block", NbtMap.builder()
+                            .putString("name", name)
+                            .putCompound("states", NbtMap.EMPTY)
+                            .build())
+                    .build());
+        }
+        return new NbtList<>(NbtType.COMPOUND, entries);
+    }
+
+    @Test
+    void internsPalettesByContent() {
+        BlockPalette palette = BlockPaletteRegistry.getPalette(paletteData("minecraft:air", "minecraft:stone"), null);
+        assertSame(palette, BlockPaletteRegistry.getPalette(paletteData("minecraft:air", "minecraft:stone"), null),
+                "equal palette data received separately resolves to the same palette");
+        assertNotSame(palette, BlockPaletteRegistry.getPalette(paletteData("minecraft:stone", "minecraft:air"), null));
+        assertTrue(BlockPaletteRegistry.getPaletteCount() >= 2);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol.rewrite.types;
+
+import org.cloudburstmc.nbt.NbtList;
+import org.cloudburstmc.nbt.NbtMap;
+import org.cloudburstmc.nbt.NbtType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BlockPaletteRewriteTest {
+
+    private static BlockPalette palette(String... names) {
+        List<NbtMap> entries = new ArrayList<>();
+        for (String name : names) {
+            entries.add(NbtMap.builder()
+                    .putCompound("block", NbtMap.builder()
+                            .putString("name", name)
+                            .putCompound("states", NbtMap.EMPTY)
+                            .build())
+                    .build());
+        }
+        return new BlockPalette(new NbtList<>(NbtType.COMPOUND, entries), null);
+    }
+
+    @Test
+    void translatesThroughTable() {
+        BlockPalette upstream = palette("minecraft:air", "minecraft:stone", "minecraft:dirt");
+        BlockPalette downstream = palette("minecraft:dirt", "minecraft:air", "minecraft:stone", "custom:block");
+
+        BlockPaletteRewrite rewrite = downstream.createRewrite(upstream);
+        assertEquals(2, rewrite.fromDownstream(0));
+        assertEquals(0, rewrite.fromDownstream(1));
+        assertEquals(1, rewrite.fromDownstream(2));
+        assertEquals(0, rewrite.fromDownstream(3), "blocks unknown upstream map to 0");
+        assertEquals(0, rewrite.fromDownstream(4), "ids outside of the downstream palette map to 0");
+        assertEquals(0, rewrite.fromDownstream(-1));
+    }
+
+    @Test
+    void sharesRewritePerPalettePair() {
+        BlockPalette upstream = palette("minecraft:air", "minecraft:stone");
+        BlockPalette downstream = palette("minecraft:stone", "minecraft:air");
+
+        assertSame(downstream.createRewrite(upstream), downstream.createRewrite(upstream));
+        assertSame(BlockPaletteRewrite.BLOCK_EQUAL, upstream.createRewrite(upstream));
+        assertEquals(7, BlockPaletteRewrite.BLOCK_EQUAL.fromDownstream(7));
+    }
+}
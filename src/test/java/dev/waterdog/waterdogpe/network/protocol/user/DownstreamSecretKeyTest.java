@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol.user;
+
+import org.cloudburstmc.protocol.bedrock.packet.ServerToClientHandshakePacket;
+import org.cloudburstmc.protocol.bedrock.util.EncryptionUtils;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.security.KeyPair;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DownstreamSecretKeyTest {
+
+    private static ServerToClientHandshakePacket handshake(KeyPair serverKeyPair, byte[] token) throws Exception {
+        ServerToClientHandshakePacket packet = new ServerToClientHandshakePacket();
+        packet.setJwt(EncryptionUtils.createHandshakeJwt(serverKeyPair, token));
+        return packet;
+    }
+
+    @Test
+    void matchesFullKeyAgreement() throws Exception {
+        KeyPair playerKeyPair = EncryptionUtils.createKeyPair();
+        KeyPair serverKeyPair = EncryptionUtils.createKeyPair();
+        LoginData loginData = LoginData.builder().keyPair(playerKeyPair).build();
+
+        for (int i = 0; i < 2; i++) { // second handshake uses the cached agreement
+            byte[] token = EncryptionUtils.generateRandomToken();
+            SecretKey expected = EncryptionUtils.getSecretKey(playerKeyPair.getPrivate(), serverKeyPair.getPublic(), token);
+            SecretKey actual = HandshakeUtils.createDownstreamSecretKey(loginData, handshake(serverKeyPair, token));
+            assertArrayEquals(expected.getEncoded(), actual.getEncoded());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 WaterdogTEAM
+ * Licensed under the GNU General Public License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.gnu.org/licenses/old-licenses/gpl-2.0.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dev.waterdog.waterdogpe.network.protocol.user;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeyPairPoolTest {
+
+    private static KeyPair dummyKeyPair() {
+        return new KeyPair(null, null);
+    }
+
+    @Test
+    void fillsAndRefillsBelowLowWaterMark() {
+        AtomicInteger generated = new AtomicInteger();
+        KeyPairPool pool = new KeyPairPool(4, 2, Runnable::run, () -> {
+            generated.incrementAndGet();
+            return dummyKeyPair();
+        });
+        assertEquals(4, pool.getAvailable());
+
+        pool.take();
+        assertEquals(3, pool.getAvailable(), "no refill above the low-water mark");
+        pool.take();
+        pool.take();
+        assertEquals(4, pool.getAvailable(), "refilled once below the low-water mark");
+
+        assertEquals(3, pool.getTaken());
+        assertEquals(0, pool.getMisses());
+        assertEquals(7, generated.get());
+    }
+
+    @Test
+    void generatesInlineWhenEmpty() {
+        List<Runnable> pending = new ArrayList<>();
+        KeyPairPool pool = new KeyPairPool(2, 1, pending::add, KeyPairPoolTest::dummyKeyPair);
+        assertEquals(0, pool.getAvailable());
+
+        assertNotNull(pool.take());
+        assertEquals(1, pool.getMisses());
+        assertEquals(1, pending.size(), "only one refill is scheduled at a time");
+
+        pending.get(0).run();
+        assertEquals(2, pool.getAvailable());
+    }
+
+    @Test
+    void handsOutDistinctKeyPairs() {
+        KeyPairPool pool = new KeyPairPool(8, 4, Runnable::run, KeyPairPoolTest::dummyKeyPair);
+        assertNotSame(pool.take(), pool.take());
+    }
+}